@@ -0,0 +1,149 @@
+package com.spoon.sok.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 빌드한 백엔드 jar를 별도 JVM으로 띄운다. 설정은 모두 명령행 인자로 넘겨 대역에 연결한다.
+ */
+@Slf4j
+public class BackendProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final Process process;
+    private final int port;
+    private final Path logFile;
+
+    private BackendProcess(Process process, int port, Path logFile) {
+        this.process = process;
+        this.port = port;
+        this.logFile = logFile;
+    }
+
+    /**
+     * @param jwtSecret 여러 노드를 띄울 때 한 노드에서 받은 토큰을 다른 노드에서도 쓸 수 있도록 같은 값을 넘긴다
+     * @param extraArgs 노드마다 덧붙일 설정 (--이름=값)
+     */
+    public static BackendProcess start(Path jar, StandIns standIns, byte[] jwtSecret, List<String> extraArgs, Path logFile)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        String compileServer = standIns.getCompileServer().getUrl();
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Dcom.amazonaws.sdk.disableEc2Metadata=true");
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=" + standIns.getJdbcUrl());
+        command.add("--spring.datasource.username=" + standIns.getDatabaseUsername());
+        command.add("--spring.datasource.password=" + standIns.getDatabasePassword());
+        command.add("--spring.jpa.hibernate.ddl-auto=update");
+        command.add("--spring.data.mongodb.uri=" + standIns.getMongoUri());
+        command.add("--spring.data.redis.host=" + standIns.getRedisHost());
+        command.add("--spring.data.redis.port=" + standIns.getRedisPort());
+        command.add("--jwt.secret=" + Base64.getEncoder().encodeToString(jwtSecret));
+        command.add("--JAVA_COMPILE_SERVER=" + compileServer);
+        command.add("--AWS_API_GATEWAY_URL=" + compileServer);
+        // 부하 테스트에서 호출하지 않는 외부 서비스는 연결하지 않는 값으로 채운다
+        command.add("--URL=http://127.0.0.1:4443/");
+        command.add("--SECRET=loadtest");
+        command.add("--FRONT_LOGIN_URL=http://127.0.0.1/login");
+        command.add("--oauth.authorizedRedirectUri=http://127.0.0.1/oauth");
+        command.add("--spring.security.oauth2.client.registration.google.client-id=loadtest");
+        command.add("--spring.security.oauth2.client.registration.google.client-secret=loadtest");
+        command.add("--spring.security.oauth2.client.registration.google.scope=profile,email");
+        command.add("--spring.mail.host=127.0.0.1");
+        command.add("--cloud.aws.credentials.accessKey=loadtest");
+        command.add("--cloud.aws.credentials.secretKey=loadtest");
+        command.add("--cloud.aws.region.static=ap-northeast-2");
+        command.add("--cloud.aws.region.auto=false");
+        command.add("--cloud.aws.stack.auto=false");
+        command.add("--cloud.aws.s3.bucket=loadtest");
+        command.addAll(extraArgs);
+
+        Files.createDirectories(logFile.toAbsolutePath().getParent());
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        BackendProcess backend = new BackendProcess(process, port, logFile);
+        try {
+            backend.awaitStarted();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            backend.close();
+            throw e;
+        }
+        return backend;
+    }
+
+    public static byte[] randomJwtSecret() {
+        byte[] jwtSecret = new byte[64];
+        new SecureRandom().nextBytes(jwtSecret);
+        return jwtSecret;
+    }
+
+    public String getHttpUrl() {
+        return "http://127.0.0.1:" + port;
+    }
+
+    public String getWebSocketUrl() {
+        return "ws://127.0.0.1:" + port + "/ws";
+    }
+
+    // 헬스 체크(/)도 인증이 필요하므로 상태 코드와 관계없이 응답이 오면 떴다고 본다
+    private void awaitStarted() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(getHttpUrl() + "/")).timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("백엔드가 시작 중 종료되었습니다. 로그: " + logFile.toAbsolutePath());
+            }
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                log.info("backend started on port {}", port);
+                return;
+            } catch (IOException e) {
+                // 아직 포트가 열리지 않았거나 요청을 처리하지 못하는 경우
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("백엔드가 " + STARTUP_TIMEOUT.toSeconds() + "초 안에 시작되지 않았습니다. 로그: " + logFile.toAbsolutePath());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (process.waitFor(10, TimeUnit.SECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        process.destroyForcibly();
+    }
+
+}
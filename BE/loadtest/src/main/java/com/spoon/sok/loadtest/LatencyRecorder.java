@@ -0,0 +1,103 @@
+package com.spoon.sok.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메시지 종류별 지연 시간 분포와 보낸 수, 오류 수를 모은다. 지연 시간은 마이크로초 단위로 기록한다.
+ */
+public class LatencyRecorder {
+
+    // 1분 넘게 걸린 응답은 1분으로 기록
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> sent = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public void record(String type, long startNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        histograms.computeIfAbsent(type, key -> new ConcurrentHistogram(MAX_MICROS, 3))
+                .recordValue(Math.max(0, Math.min(micros, MAX_MICROS)));
+    }
+
+    public void sent(String type) {
+        sent.computeIfAbsent(type, key -> new LongAdder()).increment();
+    }
+
+    public void error(String type) {
+        errors.computeIfAbsent(type, key -> new LongAdder()).increment();
+    }
+
+    // 워밍업 구간에 모은 값을 버린다
+    public void reset() {
+        histograms.values().forEach(Histogram::reset);
+        sent.values().forEach(LongAdder::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-18s %9s %9s %7s %9s %9s %9s %9s %9s%n",
+                "type", "sent", "received", "errors", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (String type : types()) {
+            Histogram histogram = histograms.get(type);
+            out.printf("%-18s %9d %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", type, count(sent, type),
+                    histogram == null ? 0 : histogram.getTotalCount(), count(errors, type),
+                    percentile(histogram, 50), percentile(histogram, 90), percentile(histogram, 99),
+                    percentile(histogram, 99.9), histogram == null ? 0 : histogram.getMaxValue() / 1000.0);
+        }
+    }
+
+    public void write(Path file, Map<String, Object> metadata) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>(metadata);
+        Map<String, Object> types = new LinkedHashMap<>();
+        for (String type : types()) {
+            Histogram histogram = histograms.get(type);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("sent", count(sent, type));
+            summary.put("received", histogram == null ? 0 : histogram.getTotalCount());
+            summary.put("errors", count(errors, type));
+            summary.put("p50Millis", percentile(histogram, 50));
+            summary.put("p90Millis", percentile(histogram, 90));
+            summary.put("p99Millis", percentile(histogram, 99));
+            summary.put("p999Millis", percentile(histogram, 99.9));
+            summary.put("maxMillis", histogram == null ? 0 : histogram.getMaxValue() / 1000.0);
+            types.put(type, summary);
+        }
+        report.put("types", types);
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    private Iterable<String> types() {
+        Set<String> types = new TreeSet<>(histograms.keySet());
+        types.addAll(sent.keySet());
+        types.addAll(errors.keySet());
+        return types;
+    }
+
+    private static long count(Map<String, LongAdder> counters, String type) {
+        LongAdder counter = counters.get(type);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    private static double percentile(Histogram histogram, double percentile) {
+        return histogram == null || histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+}
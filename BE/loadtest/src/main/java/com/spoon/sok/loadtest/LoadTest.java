@@ -0,0 +1,114 @@
+package com.spoon.sok.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스터디룸 부하 테스트.
+ *
+ * <p>MySQL, MongoDB, Redis 컨테이너와 실행 서버 대역을 띄우고 백엔드 jar를 실행한 뒤,
+ * 방마다 여러 사용자가 STOMP로 채팅(/pub/chat), 30Hz 커서 이동(/pub/cursor), 몰아서 누르는 코드 실행(/pub/run)을 보내고
+ * 공지사항과 자료실 목록을 페이지 단위로 조회하는 상황을 재현한다.
+ *
+ * <p>결과는 메시지 종류별로 보낸 수, 받은 수, 오류 수와 지연 시간 분위수(p50, p90, p99, p99.9, 최대)를 출력하고 JSON으로도 남긴다.
+ * 방송 메시지(chat, cursor, run.*)의 지연 시간은 보낸 시각부터 같은 방 사용자 각각이 받은 시각까지이므로 받은 수는 보낸 수의 대략 방 인원 배가 된다.
+ *
+ * <pre>./gradlew :loadtest:run --args="--rooms=4 --users-per-room=8 --duration-seconds=120"</pre>
+ * --backends=3 으로 백엔드를 여러 대 띄우면 같은 방 사용자도 서로 다른 노드에 접속하므로
+ * 노드 간 방송(--broker-mode=redis 또는 relay)까지 포함한 지연 시간을 잰다.
+ * Docker가 필요하다.
+ */
+@Slf4j
+public class LoadTest {
+
+    private static final Path BACKEND_LOG_DIR = Path.of("build/loadtest");
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        log.info("load test: {}", options);
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        try (StandIns standIns = StandIns.start(options.compileDelay)) {
+            List<BackendProcess> backends = new ArrayList<>();
+            try {
+                byte[] jwtSecret = BackendProcess.randomJwtSecret();
+                List<String> extraArgs = List.of("--socket.broker.mode=" + options.brokerMode,
+                        "--socket.broker.relay.host=" + options.relayHost, "--socket.broker.relay.port=" + options.relayPort);
+                for (int i = 0; i < options.backends; i++) {
+                    Path logFile = BACKEND_LOG_DIR.resolve(options.backends == 1 ? "backend.log" : "backend-" + i + ".log");
+                    backends.add(BackendProcess.start(options.backendJar, standIns, jwtSecret, extraArgs, logFile));
+                }
+                ApiClient apiClient = new ApiClient(backends.get(0).getHttpUrl());
+                List<Seeder.Room> rooms = new Seeder(apiClient, standIns.getJdbcUrl(), standIns.getDatabaseUsername(), standIns.getDatabasePassword())
+                        .seed(options);
+
+                WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+                // 보낼 때는 JSON, 받을 때는 본문을 그대로 받아 보낸 시각만 찾는다
+                stompClient.setMessageConverter(new CompositeMessageConverter(List.of(new ByteArrayMessageConverter(), new MappingJackson2MessageConverter())));
+
+                List<VirtualUser> users = new ArrayList<>();
+                List<RoomDriver> drivers = new ArrayList<>();
+                for (Seeder.Room room : rooms) {
+                    List<VirtualUser> roomUsers = new ArrayList<>();
+                    for (Seeder.Member member : room.getMembers()) {
+                        VirtualUser user = new VirtualUser(member, room.getStudyId(), recorder);
+                        user.connect(stompClient, backends.get((users.size() + roomUsers.size()) % backends.size()).getWebSocketUrl());
+                        roomUsers.add(user);
+                    }
+                    users.addAll(roomUsers);
+                    drivers.add(new RoomDriver(room.getStudyId(), roomUsers, options, apiClient, recorder));
+                }
+                log.info("{} users connected to {} rooms", users.size(), rooms.size());
+
+                ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+                try {
+                    drivers.forEach(driver -> driver.start(scheduler));
+                    Thread.sleep(options.warmup.toMillis());
+                    recorder.reset();
+                    int requestsBefore = standIns.getCompileServer().getRequests();
+                    log.info("warm-up finished, measuring for {} s", options.duration.toSeconds());
+
+                    Thread.sleep(options.duration.toMillis());
+                    drivers.forEach(RoomDriver::stop);
+                    int compileRequests = standIns.getCompileServer().getRequests() - requestsBefore;
+                    // 보내는 중이던 메시지와 실행 결과를 받을 때까지 잠시 기다린다
+                    Thread.sleep(options.compileDelay.toMillis() + 2000);
+
+                    System.out.println();
+                    recorder.print(System.out);
+                    System.out.println("compile server requests: " + compileRequests);
+
+                    Map<String, Object> metadata = new LinkedHashMap<>();
+                    metadata.put("options", options.toString());
+                    metadata.put("users", users.size());
+                    metadata.put("compileServerRequests", compileRequests);
+                    recorder.write(options.reportFile, metadata);
+                    log.info("report written to {}", options.reportFile.toAbsolutePath());
+                } finally {
+                    scheduler.shutdownNow();
+                    scheduler.awaitTermination(5, TimeUnit.SECONDS);
+                    users.forEach(VirtualUser::disconnect);
+                    stompClient.stop();
+                }
+            } finally {
+                for (BackendProcess backend : backends) {
+                    backend.close();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.spoon.sok.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 부하 테스트 옵션. 인자는 --rooms=4 처럼 넘기고, 넘기지 않은 값은 기본값을 쓴다.
+ */
+public class LoadTestOptions {
+
+    // 스터디룸 수와 방마다 접속하는 사용자 수
+    final int rooms;
+    final int usersPerRoom;
+    final Duration duration;
+    // 측정 전에 버리는 구간 (JIT, 커넥션 풀 워밍업)
+    final Duration warmup;
+
+    // 사용자마다 초당 커서 이동 횟수
+    final int cursorHz;
+    // 사용자마다 채팅을 보내는 평균 간격
+    final Duration chatInterval;
+    // 방마다 몇 명이 동시에 실행 버튼을 누르는지와 그 간격
+    final int runBurstSize;
+    final Duration runBurstInterval;
+    // 실행 요청 중 스트리밍으로 보내는 비율
+    final double streamRatio;
+    // 사용자마다 공지사항, 자료실 페이지를 넘기는 간격
+    final Duration pagingInterval;
+    final int pageSize;
+
+    // 방마다 미리 넣어 둘 공지사항, 자료 수
+    final int noticesPerRoom;
+    final int archivesPerRoom;
+
+    // 실행 서버 대역의 응답 지연
+    final Duration compileDelay;
+
+    // 띄울 백엔드 노드 수 (사용자는 노드마다 번갈아 접속한다)와 STOMP 브로커 모드 (socket.broker.mode)
+    final int backends;
+    final String brokerMode;
+    // relay 모드에서 연결할 외부 STOMP 브로커
+    final String relayHost;
+    final int relayPort;
+
+    final Path backendJar;
+    final Path reportFile;
+
+    private LoadTestOptions(Map<String, String> values) {
+        this.rooms = intValue(values, "rooms", 2);
+        this.usersPerRoom = intValue(values, "users-per-room", 6);
+        this.duration = Duration.ofSeconds(intValue(values, "duration-seconds", 60));
+        this.warmup = Duration.ofSeconds(intValue(values, "warmup-seconds", 10));
+        this.cursorHz = intValue(values, "cursor-hz", 30);
+        this.chatInterval = Duration.ofMillis(intValue(values, "chat-interval-millis", 3000));
+        this.runBurstSize = intValue(values, "run-burst-size", 3);
+        this.runBurstInterval = Duration.ofMillis(intValue(values, "run-burst-interval-millis", 10000));
+        this.streamRatio = Double.parseDouble(values.getOrDefault("stream-ratio", "0.5"));
+        this.pagingInterval = Duration.ofMillis(intValue(values, "paging-interval-millis", 5000));
+        this.pageSize = intValue(values, "page-size", 10);
+        this.noticesPerRoom = intValue(values, "notices-per-room", 50);
+        this.archivesPerRoom = intValue(values, "archives-per-room", 50);
+        this.compileDelay = Duration.ofMillis(intValue(values, "compile-delay-millis", 200));
+
+        this.backends = intValue(values, "backends", 1);
+        this.brokerMode = values.getOrDefault("broker-mode", backends > 1 ? "redis" : "simple");
+        if (backends > 1 && brokerMode.equals("simple")) {
+            throw new IllegalArgumentException("노드가 여러 대면 --broker-mode=redis 또는 relay 가 필요합니다. (simple은 다른 노드로 방송하지 않습니다)");
+        }
+        this.relayHost = values.getOrDefault("relay-host", "localhost");
+        this.relayPort = intValue(values, "relay-port", 61613);
+
+        String backendJar = values.get("backend-jar");
+        if (backendJar == null) {
+            throw new IllegalArgumentException("--backend-jar 옵션이 필요합니다. (./gradlew :loadtest:run 으로 실행하면 자동으로 넘깁니다)");
+        }
+        this.backendJar = Path.of(backendJar);
+        this.reportFile = Path.of(values.getOrDefault("report", "build/loadtest/report.json"));
+    }
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("옵션은 --이름=값 형식으로 넘겨 주세요: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    @Override
+    public String toString() {
+        return "rooms=" + rooms + ", usersPerRoom=" + usersPerRoom + ", duration=" + duration.toSeconds() + "s"
+                + ", warmup=" + warmup.toSeconds() + "s, cursorHz=" + cursorHz
+                + ", chatInterval=" + chatInterval.toMillis() + "ms"
+                + ", runBurst=" + runBurstSize + "/" + runBurstInterval.toMillis() + "ms"
+                + ", streamRatio=" + streamRatio + ", pagingInterval=" + pagingInterval.toMillis() + "ms"
+                + ", backends=" + backends + ", brokerMode=" + brokerMode;
+    }
+
+}
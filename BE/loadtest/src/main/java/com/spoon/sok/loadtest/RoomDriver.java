@@ -0,0 +1,111 @@
+package com.spoon.sok.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 스터디룸 하나의 부하를 만든다.
+ * 사용자마다 커서 이동, 채팅, 공지사항/자료실 페이지 이동을 주기적으로 보내고, 방 단위로 여러 명이 한꺼번에 실행 버튼을 누른다.
+ */
+public class RoomDriver {
+
+    private static final String CODE = "import java.util.Scanner;\n"
+            + "public class Main {\n"
+            + "    public static void main(String[] args) {\n"
+            + "        System.out.println(new Scanner(System.in).nextLine());\n"
+            + "    }\n"
+            + "}\n";
+
+    private final long studyId;
+    private final List<VirtualUser> users;
+    private final LoadTestOptions options;
+    private final ApiClient apiClient;
+    private final LatencyRecorder recorder;
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    private final AtomicInteger bursts = new AtomicInteger();
+
+    public RoomDriver(long studyId, List<VirtualUser> users, LoadTestOptions options, ApiClient apiClient, LatencyRecorder recorder) {
+        this.studyId = studyId;
+        this.users = users;
+        this.options = options;
+        this.apiClient = apiClient;
+        this.recorder = recorder;
+    }
+
+    public void start(ScheduledExecutorService scheduler) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long cursorPeriodMicros = TimeUnit.SECONDS.toMicros(1) / options.cursorHz;
+        long chatPeriodMillis = options.chatInterval.toMillis();
+        long pagingPeriodMillis = options.pagingInterval.toMillis();
+
+        // 사용자마다 시작 시점을 흩어 한 순간에 몰리지 않게 한다
+        for (VirtualUser user : users) {
+            tasks.add(scheduler.scheduleAtFixedRate(user::sendCursor,
+                    random.nextLong(cursorPeriodMicros), cursorPeriodMicros, TimeUnit.MICROSECONDS));
+            tasks.add(scheduler.scheduleAtFixedRate(user::sendChat,
+                    random.nextLong(chatPeriodMillis), chatPeriodMillis, TimeUnit.MILLISECONDS));
+            tasks.add(scheduler.scheduleAtFixedRate(new Pager(user),
+                    random.nextLong(pagingPeriodMillis), pagingPeriodMillis, TimeUnit.MILLISECONDS));
+        }
+        long burstPeriodMillis = options.runBurstInterval.toMillis();
+        tasks.add(scheduler.scheduleAtFixedRate(this::runBurst,
+                random.nextLong(burstPeriodMillis), burstPeriodMillis, TimeUnit.MILLISECONDS));
+    }
+
+    public void stop() {
+        tasks.forEach(task -> task.cancel(false));
+    }
+
+    // 같은 코드를 보고 있던 몇 명이 거의 동시에 실행 버튼을 누르는 상황
+    private void runBurst() {
+        List<VirtualUser> clicking = new ArrayList<>(users);
+        Collections.shuffle(clicking);
+        boolean stream = ThreadLocalRandom.current().nextDouble() < options.streamRatio;
+        String input = "lt:" + System.nanoTime() + ":" + bursts.incrementAndGet();
+        for (VirtualUser user : clicking.subList(0, Math.min(options.runBurstSize, clicking.size()))) {
+            user.sendRun("java", CODE, input, stream);
+        }
+    }
+
+    /**
+     * 공지사항과 자료실 목록을 번갈아 한 페이지씩 넘긴다.
+     */
+    private class Pager implements Runnable {
+
+        private final VirtualUser user;
+        private int page;
+        private boolean board = true;
+
+        Pager(VirtualUser user) {
+            this.user = user;
+        }
+
+        @Override
+        public void run() {
+            String type = board ? "board.page" : "archive.page";
+            int pages = Math.max(1, ((board ? options.noticesPerRoom : options.archivesPerRoom) + options.pageSize - 1) / options.pageSize);
+            String path = "/api/study/" + studyId + (board ? "/board" : "/document") + "?page=" + (page % pages) + "&size=" + options.pageSize;
+            if (!board) {
+                page++;
+            }
+            board = !board;
+
+            long startNanos = System.nanoTime();
+            recorder.sent(type);
+            apiClient.getAsync(path, user.getMember().getAccessToken()).whenComplete((ignored, e) -> {
+                if (e != null) {
+                    recorder.error(type);
+                } else {
+                    recorder.record(type, startNanos);
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.spoon.sok.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 가상 사용자와 스터디룸을 만든다.
+ * 회원가입, 로그인, 스터디 생성, 공지사항 등록은 API로 하고, 메일 인증과 자료 업로드(S3)는 DB에 바로 넣는다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class Seeder {
+
+    private static final String AUTH_CODE = "LOADTEST";
+    private static final String PASSWORD = "loadtest1234!";
+
+    private final ApiClient apiClient;
+    private final String jdbcUrl;
+    private final String jdbcUsername;
+    private final String jdbcPassword;
+
+    public List<Room> seed(LoadTestOptions options) throws IOException, InterruptedException, SQLException {
+        List<Room> rooms = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, jdbcUsername, jdbcPassword)) {
+            for (int r = 0; r < options.rooms; r++) {
+                List<Member> members = new ArrayList<>();
+                for (int u = 0; u < options.usersPerRoom; u++) {
+                    members.add(signupAndLogin(connection, "lt" + r + "u" + u));
+                }
+
+                Member leader = members.get(0);
+                long studyId = createStudy(leader, "load test room " + r);
+                for (int n = 0; n < options.noticesPerRoom; n++) {
+                    Map<String, Object> notice = new LinkedHashMap<>();
+                    notice.put("authorId", leader.getUserId());
+                    notice.put("noticeTitle", "notice " + n);
+                    notice.put("content", "load test notice " + n);
+                    apiClient.postJson("/api/study/" + studyId + "/board", leader.getAccessToken(), notice);
+                }
+                insertArchives(connection, studyId, leader.getUserId(), options.archivesPerRoom);
+
+                rooms.add(new Room(studyId, members));
+                log.info("seeded room {} (study {}) with {} members", r, studyId, members.size());
+            }
+        }
+        return rooms;
+    }
+
+    private Member signupAndLogin(Connection connection, String nickname) throws IOException, InterruptedException, SQLException {
+        String email = nickname + "@loadtest.sok";
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into email_auth (email, auth_code, limit_time, isauth) values (?, ?, ?, 1)")) {
+            statement.setString(1, email);
+            statement.setString(2, AUTH_CODE);
+            statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now().plusHours(1)));
+            statement.executeUpdate();
+        }
+
+        Map<String, Object> signup = new LinkedHashMap<>();
+        signup.put("email", email);
+        signup.put("password", PASSWORD);
+        signup.put("nickname", nickname);
+        signup.put("authCode", AUTH_CODE);
+        apiClient.postJson("/api/signup", null, signup);
+
+        JsonNode login = apiClient.postJson("/api/login/user", null, Map.of("email", email, "password", PASSWORD));
+        return new Member(login.path("userId").asLong(), nickname, login.path("accessToken").asText());
+    }
+
+    private long createStudy(Member leader, String title) throws IOException, InterruptedException {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("userId", String.valueOf(leader.getUserId()));
+        form.put("title", title);
+        form.put("startAt", LocalDate.now().toString());
+        form.put("endAt", LocalDate.now().plusMonths(1).toString());
+        form.put("description", "load test");
+        return apiClient.postForm("/api/study", leader.getAccessToken(), form).path("studyinfoId").asLong();
+    }
+
+    private static void insertArchives(Connection connection, long studyId, long userId, int count) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into study_archive (upload_at, title, content, studyinfo_id, users_id) values (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                statement.setDate(1, java.sql.Date.valueOf(LocalDate.now().minusDays(i)));
+                statement.setString(2, "archive " + i);
+                statement.setString(3, "load test archive " + i);
+                statement.setLong(4, studyId);
+                statement.setLong(5, userId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Room {
+        private final long studyId;
+        private final List<Member> members;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Member {
+        private final long userId;
+        private final String nickname;
+        private final String accessToken;
+    }
+
+}
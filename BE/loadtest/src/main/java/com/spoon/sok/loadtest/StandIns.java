@@ -0,0 +1,73 @@
+package com.spoon.sok.loadtest;
+
+import lombok.Getter;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 백엔드가 의존하는 외부 시스템의 대역.
+ * MySQL, MongoDB, Redis는 컨테이너로 띄우고, 실행 서버는 {@link StubCompileServer}로 대신한다.
+ */
+public class StandIns implements AutoCloseable {
+
+    private final MySQLContainer<?> mysql = new MySQLContainer<>(DockerImageName.parse("mysql:8.0"))
+            .withDatabaseName("sok")
+            .withUsername("sok")
+            .withPassword("sok");
+    private final MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse("mongo:6.0"));
+    private final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    @Getter
+    private final StubCompileServer compileServer;
+
+    private StandIns(Duration compileDelay) throws IOException {
+        this.compileServer = new StubCompileServer(compileDelay);
+    }
+
+    public static StandIns start(Duration compileDelay) throws IOException {
+        StandIns standIns = new StandIns(compileDelay);
+        // 컨테이너는 병렬로 띄운다
+        Startables.deepStart(standIns.mysql, standIns.mongo, standIns.redis).join();
+        return standIns;
+    }
+
+    public String getJdbcUrl() {
+        return mysql.getJdbcUrl();
+    }
+
+    public String getDatabaseUsername() {
+        return mysql.getUsername();
+    }
+
+    public String getDatabasePassword() {
+        return mysql.getPassword();
+    }
+
+    public String getMongoUri() {
+        return mongo.getReplicaSetUrl("sok");
+    }
+
+    public String getRedisHost() {
+        return redis.getHost();
+    }
+
+    public int getRedisPort() {
+        return redis.getMappedPort(6379);
+    }
+
+    @Override
+    public void close() {
+        compileServer.close();
+        redis.stop();
+        mongo.stop();
+        mysql.stop();
+    }
+
+}
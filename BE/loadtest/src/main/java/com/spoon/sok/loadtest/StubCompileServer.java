@@ -0,0 +1,149 @@
+package com.spoon.sok.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 실행 서버 대역. 코드를 실행하지 않고 정해진 시간만큼 기다린 뒤 입력을 그대로 출력으로 돌려준다.
+ * 응답 형식은 실행 서버의 /compile, /compile/stream, /compile/status와 같다.
+ */
+public class StubCompileServer implements AutoCloseable {
+
+    private static final int CONCURRENCY = 64;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long delayMillis;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    public StubCompileServer(Duration delay) throws IOException {
+        this.delayMillis = delay.toMillis();
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/compile", this::handle);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/compile";
+    }
+
+    // 백엔드가 보낸 실행 요청 수 (같은 방의 같은 실행 요청은 백엔드에서 하나로 합쳐진다)
+    public int getRequests() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if ("GET".equals(exchange.getRequestMethod()) && path.equals("/compile/status")) {
+                Map<String, Object> status = new LinkedHashMap<>();
+                status.put("queued", 0);
+                status.put("running", running.get());
+                status.put("concurrency", CONCURRENCY);
+                status.put("queueCapacity", 64);
+                respond(exchange, "application/json", objectMapper.writeValueAsBytes(status));
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            String input = request.path("input").asText("");
+            String userId = request.path("userId").asText("");
+            requests.incrementAndGet();
+            running.incrementAndGet();
+            try {
+                if (path.equals("/compile/stream")) {
+                    stream(exchange, input, userId);
+                } else if (path.equals("/compile")) {
+                    sleep(delayMillis);
+                    respond(exchange, "application/json", objectMapper.writeValueAsBytes(result(input, userId)));
+                } else {
+                    exchange.sendResponseHeaders(404, -1);
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    // 절반쯤 지나 출력 조각 하나를 보내고, 끝나면 실행 결과를 보낸다
+    private void stream(HttpExchange exchange, String input, String userId) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+
+        sleep(delayMillis / 2);
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("type", "chunk");
+        chunk.put("stream", "stdout");
+        chunk.put("data", input);
+        writeLine(body, chunk);
+
+        sleep(delayMillis - delayMillis / 2);
+        Map<String, Object> done = new LinkedHashMap<>();
+        done.put("type", "done");
+        done.put("status", "OK");
+        done.putAll(result(input, userId));
+        done.remove("userId");
+        writeLine(body, done);
+    }
+
+    private Map<String, Object> result(String input, String userId) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state", true);
+        result.put("output", List.of(input));
+        result.put("userId", userId);
+        result.put("time", delayMillis);
+        result.put("cpuTime", -1);
+        result.put("memory", -1);
+        return result;
+    }
+
+    private void writeLine(OutputStream body, Object frame) throws IOException {
+        body.write(objectMapper.writeValueAsBytes(frame));
+        body.write('\n');
+        body.flush();
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
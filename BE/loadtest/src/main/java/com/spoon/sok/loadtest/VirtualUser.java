@@ -0,0 +1,161 @@
+package com.spoon.sok.loadtest;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 스터디룸에 접속한 사용자 한 명. 채팅, 커서, 실행 결과를 구독하고 채팅과 커서를 보낸다.
+ * 보내는 메시지에 보낸 시각(System.nanoTime)을 "lt:시각" 형태로 넣어 두고, 방송을 받으면 그 차이를 기록한다.
+ */
+@Slf4j
+public class VirtualUser {
+
+    private static final Pattern SENT_AT = Pattern.compile("lt:(-?\\d+)");
+
+    @Getter
+    private final Seeder.Member member;
+    private final long studyId;
+    private final LatencyRecorder recorder;
+    // 첫 출력 조각을 이미 기록한 실행 (보낸 시각으로 구분, 최종 결과를 받으면 지운다)
+    private final Set<Long> chunkedRuns = ConcurrentHashMap.newKeySet();
+    private StompSession session;
+
+    public VirtualUser(Seeder.Member member, long studyId, LatencyRecorder recorder) {
+        this.member = member;
+        this.studyId = studyId;
+        this.recorder = recorder;
+    }
+
+    public void connect(WebSocketStompClient stompClient, String url) throws Exception {
+        session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() {
+            @Override
+            public void handleException(StompSession session, StompCommand command, StompHeaders headers, byte[] payload, Throwable exception) {
+                recorder.error("stomp");
+            }
+
+            @Override
+            public void handleTransportError(StompSession session, Throwable exception) {
+                log.warn("transport error for {}: {}", member.getNickname(), exception.toString());
+                recorder.error("stomp");
+            }
+        }).get(30, TimeUnit.SECONDS);
+
+        subscribe("/sub/chat/" + studyId, "chat");
+        subscribe("/sub/cursor/" + studyId, "cursor");
+        subscribe("/sub/run/" + studyId, null);
+    }
+
+    public boolean isConnected() {
+        return session != null && session.isConnected();
+    }
+
+    public void sendChat() {
+        Map<String, Object> chat = new LinkedHashMap<>();
+        chat.put("userId", member.getUserId());
+        chat.put("studyRoomId", studyId);
+        chat.put("message", "lt:" + System.nanoTime());
+        chat.put("dateTime", LocalDateTime.now().toString());
+        send("/pub/chat", chat, "chat");
+    }
+
+    public void sendCursor() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> cursor = new LinkedHashMap<>();
+        cursor.put("userId", member.getUserId());
+        cursor.put("nickname", "lt:" + System.nanoTime());
+        cursor.put("studyRoomId", String.valueOf(studyId));
+        cursor.put("x", random.nextInt(1920));
+        cursor.put("y", random.nextInt(1080));
+        send("/pub/cursor", cursor, "cursor");
+    }
+
+    /**
+     * 실행 버튼을 누른다. 같은 묶음의 사용자는 같은 코드와 입력을 보내므로 백엔드에서 실행 한 번으로 합쳐진다.
+     */
+    public void sendRun(String language, String code, String input, boolean stream) {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("language", language);
+        run.put("userId", member.getUserId());
+        run.put("nickname", member.getNickname());
+        run.put("studyRoomId", studyId);
+        run.put("code", code);
+        run.put("input", input);
+        run.put("stream", stream);
+        send("/pub/run", run, "run.result");
+    }
+
+    private void send(String destination, Object payload, String type) {
+        if (!isConnected()) {
+            recorder.error(type);
+            return;
+        }
+        try {
+            session.send(destination, payload);
+            recorder.sent(type);
+        } catch (RuntimeException e) {
+            recorder.error(type);
+        }
+    }
+
+    // type이 null이면 실행 결과 구독 (출력 조각과 최종 결과를 나눠 기록)
+    private void subscribe(String destination, String type) {
+        session.subscribe(destination, new StompSessionHandlerAdapter() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                String body = new String((byte[]) payload, StandardCharsets.UTF_8);
+                Matcher matcher = SENT_AT.matcher(body);
+                if (!matcher.find()) {
+                    // 실행 서버 연결 실패 등 보낸 시각이 없는 응답
+                    recorder.error(type == null ? "run.result" : type);
+                    return;
+                }
+                long sentAt = Long.parseLong(matcher.group(1));
+                if ("cursor".equals(type)) {
+                    // 커서는 스터디룸별로 묶여 오므로 묶음 안의 위치마다 기록
+                    do {
+                        recorder.record(type, Long.parseLong(matcher.group(1)));
+                    } while (matcher.find());
+                } else if (type != null) {
+                    recorder.record(type, sentAt);
+                } else if (body.contains("\"type\":\"chunk\"")) {
+                    // 실행마다 첫 조각만 기록
+                    if (chunkedRuns.add(sentAt)) {
+                        recorder.record("run.first-chunk", sentAt);
+                    }
+                } else {
+                    chunkedRuns.remove(sentAt);
+                    recorder.record("run.result", sentAt);
+                }
+            }
+        });
+    }
+
+    public void disconnect() {
+        if (isConnected()) {
+            session.disconnect();
+        }
+    }
+
+}
@@ -3,6 +3,8 @@ package com.spoon.sok.aws;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.spoon.sok.domain.study.dto.responseDTO.FileInfoDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -19,6 +21,7 @@ public class S3Service {
     @Value("${cloud.aws.s3.bucket}")
     private String bucket;
     private final AmazonS3 amazonS3;
+    private final MeterRegistry meterRegistry;
 
     public String upload(MultipartFile multipartFile) throws IOException {
 
@@ -30,7 +33,7 @@ public class S3Service {
         // 주소로 접근 했을때 다운로드됨
         // objMeta.setContentLength(multipartFile.getInputStream().available());
 
-        amazonS3.putObject(bucket, s3FileName, multipartFile.getInputStream(), objMeta);
+        putObject(s3FileName, multipartFile, objMeta);
         return amazonS3.getUrl(bucket, s3FileName).toString();
     }
 
@@ -41,7 +44,7 @@ public class S3Service {
         String s3FileName = UUID.randomUUID() + "-" + multipartFile.getOriginalFilename();
         ObjectMetadata objMeta = new ObjectMetadata();
         objMeta.setContentLength(multipartFile.getInputStream().available());
-        amazonS3.putObject(bucket, s3FileName, multipartFile.getInputStream(), objMeta);
+        putObject(s3FileName, multipartFile, objMeta);
 
         // FileInfoDto 만들기
         System.out.println(multipartFile.getOriginalFilename());
@@ -56,4 +59,19 @@ public class S3Service {
 
         return fileInfoDto;
     }
-}
\ No newline at end of file
+
+    // 업로드 시간 측정 (s3.upload)
+    private void putObject(String s3FileName, MultipartFile multipartFile, ObjectMetadata objMeta) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            amazonS3.putObject(bucket, s3FileName, multipartFile.getInputStream(), objMeta);
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder("s3.upload")
+                    .description("S3 업로드 시간")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
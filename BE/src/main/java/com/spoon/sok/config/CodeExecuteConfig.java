@@ -0,0 +1,108 @@
+package com.spoon.sok.config;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * 코드 실행 서버 호출용 HTTP 클라이언트와 전용 스레드 풀, 실행 서버별 서킷 브레이커와 벌크헤드.
+ * 요청은 비동기로 보내고 응답 처리도 이 풀에서 하므로 STOMP 메시지 처리 스레드를 막지 않는다.
+ */
+@Configuration
+public class CodeExecuteConfig {
+
+    @Value("${code.execute.connect-timeout-millis:3000}")
+    private long connectTimeoutMillis;
+
+    @Value("${code.execute.threads:4}")
+    private int threads;
+
+    // 최근 호출 중 실패(연결 실패, 시간 초과, 5xx) 비율이 넘으면 차단
+    @Value("${code.execute.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    // 느린 호출 비율이 넘어도 차단
+    @Value("${code.execute.circuit-breaker.slow-call-rate-threshold:80}")
+    private float slowCallRateThreshold;
+
+    @Value("${code.execute.circuit-breaker.slow-call-duration-millis:20000}")
+    private long slowCallDurationMillis;
+
+    @Value("${code.execute.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${code.execute.circuit-breaker.minimum-number-of-calls:10}")
+    private int minimumNumberOfCalls;
+
+    // 차단 후 이 시간이 지나면 일부 요청만 보내 회복 여부를 확인 (half-open)
+    @Value("${code.execute.circuit-breaker.wait-duration-in-open-state-millis:10000}")
+    private long waitDurationInOpenStateMillis;
+
+    @Value("${code.execute.circuit-breaker.permitted-calls-in-half-open-state:3}")
+    private int permittedCallsInHalfOpenState;
+
+    // 실행 서버별 동시 실행 요청 수 (넘으면 기다리지 않고 거절)
+    @Value("${code.execute.bulkhead.max-concurrent-calls:32}")
+    private int maxConcurrentCalls;
+
+    @Bean
+    public ThreadPoolTaskExecutor codeExecuteExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("code-execute-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public HttpClient codeExecuteHttpClient(@Qualifier("codeExecuteExecutor") ThreadPoolTaskExecutor codeExecuteExecutor) {
+        // 커넥션은 클라이언트 안에서 재사용된다
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .executor(codeExecuteExecutor)
+                .build();
+    }
+
+    @Bean
+    public CircuitBreakerRegistry codeExecuteCircuitBreakerRegistry(MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMillis))
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(Duration.ofMillis(waitDurationInOpenStateMillis))
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpenState)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        // resilience4j.circuitbreaker.state, resilience4j.circuitbreaker.calls 등
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry codeExecuteBulkheadRegistry(MeterRegistry meterRegistry) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+}
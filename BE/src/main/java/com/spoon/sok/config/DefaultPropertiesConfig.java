@@ -0,0 +1,13 @@
+package com.spoon.sok.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * application.properties는 배포 환경에서 따로 주입되므로, 코드와 함께 관리할 기본 설정은 여기서 불러온다.
+ * 같은 키를 application.properties에 두면 그 값이 우선한다.
+ */
+@Configuration
+@PropertySource(value = "classpath:sok-defaults.properties", encoding = "UTF-8")
+public class DefaultPropertiesConfig {
+}
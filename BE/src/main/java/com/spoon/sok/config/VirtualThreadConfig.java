@@ -0,0 +1,84 @@
+package com.spoon.sok.config;
+
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.spoon.sok.util.VirtualThreads;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * 가상 스레드 실행 모드 (sok.threads.virtual.enabled=true, JDK 21 이상에서 실행할 때만 적용).
+ * 요청 처리(Tomcat)와 비동기 작업(@Async, MVC 비동기 응답)을 가상 스레드에서 실행하고,
+ * 스레드 수 대신 커넥션 풀이 동시 처리량을 정하므로 풀 크기를 함께 늘린다.
+ * STOMP 채널 스레드는 {@link WebSocketConfig}에서 바꾼다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "sok.threads.virtual.enabled", havingValue = "true")
+@Conditional(VirtualThreadConfig.Supported.class)
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("virtual threads enabled for request handling");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.perTaskExecutor("tomcat-virtual-"));
+    }
+
+    // @Async와 MVC 비동기 응답이 쓰는 실행기
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public SimpleAsyncTaskExecutor applicationTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setThreadFactory(VirtualThreads.factory("task-virtual-"));
+        return executor;
+    }
+
+    @Bean
+    public static BeanPostProcessor virtualThreadHikariPoolSizer(@Value("${sok.threads.virtual.jdbc-pool-size:40}") int jdbcPoolSize) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // 커넥션 풀이 시작되기 전(첫 커넥션 요청 전)에만 바꿀 수 있다
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMaximumPoolSize(jdbcPoolSize);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer virtualThreadMongoPoolCustomizer(@Value("${sok.threads.virtual.mongo-pool-size:200}") int mongoPoolSize) {
+        return settings -> settings.applyToConnectionPoolSettings((ConnectionPoolSettings.Builder pool) -> pool.maxSize(mongoPoolSize));
+    }
+
+    /**
+     * 설정을 켰어도 JDK 17 등 가상 스레드를 지원하지 않는 JVM이면 적용하지 않는다.
+     */
+    static class Supported implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            if (VirtualThreads.isSupported()) {
+                return true;
+            }
+            Environment environment = context.getEnvironment();
+            if (environment.getProperty("sok.threads.virtual.enabled", Boolean.class, false)) {
+                log.warn("sok.threads.virtual.enabled=true but virtual threads are not available on Java {}, using platform threads",
+                        Runtime.version());
+            }
+            return false;
+        }
+    }
+}
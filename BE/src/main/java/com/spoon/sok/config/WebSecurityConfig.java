@@ -7,6 +7,7 @@ import com.spoon.sok.domain.user.repository.CookieAuthorizationRequestRepository
 import com.spoon.sok.domain.user.service.CustomOAuth2UserService;
 import com.spoon.sok.util.JwtAuthenticationFilter;
 import com.spoon.sok.util.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,6 +30,7 @@ import static org.springframework.security.config.Customizer.withDefaults;
 public class WebSecurityConfig {
     private final JwtTokenProvider jwtTokenProvider;
     private final RedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
 
     private final CustomOAuth2UserService customOAuth2UserService;
     private final CookieAuthorizationRequestRepository cookieAuthorizationRequestRepository;
@@ -63,7 +65,11 @@ public class WebSecurityConfig {
                                     "/api/check/**",
                                     "/api/email/**",
                                     "/api/find/password",
-                                    "/api/study/invite/pre-check").permitAll()
+                                    "/api/study/invite/pre-check",
+                                    // 모니터링 (헬스 체크)
+                                    "/actuator/health").permitAll()
+                            // 메트릭(스터디룸별 접속 수, 내부 실행기 상태 등)과 로그 레벨 변경은 관리자만
+                            .requestMatchers("/actuator/prometheus", "/actuator/metrics/**", "/actuator/loggers/**").hasRole("ADMIN")
                             .anyRequest().hasRole("USER");
                 })
                 .oauth2Login((oauth2) -> {
@@ -80,7 +86,7 @@ public class WebSecurityConfig {
                     oauth2.successHandler(oAuth2AuthenticationSuccessHandler);
                     oauth2.failureHandler(oAuth2AuthenticationFailureHandler);
                 })
-                .addFilterBefore(new JwtAuthenticationFilter(jwtTokenProvider, redisTemplate), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new JwtAuthenticationFilter(jwtTokenProvider, redisTemplate, meterRegistry), UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(new ExceptionHandlerFilter(jwtTokenProvider, redisTemplate), OAuth2LoginAuthenticationFilter.class)
                 .build();
     }
@@ -1,16 +1,90 @@
 package com.spoon.sok.config;
 
+import com.spoon.sok.domain.socket.service.RedisBrokerBridge;
+import com.spoon.sok.domain.socket.service.SlowConsumerGuard;
+import com.spoon.sok.domain.socket.service.StompMetricsInterceptor;
+import com.spoon.sok.util.VirtualThreads;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.StringUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 // @EnableWebSocketMessageBroker annotation을 사용해서 STOMP를 사용할 수 있게 설정한다.
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompMetricsInterceptor stompMetricsInterceptor;
+    private final SlowConsumerGuard slowConsumerGuard;
+    private final ObjectProvider<RedisBrokerBridge> redisBrokerBridge;
+
+    // simple: 노드 안의 브로커 (단일 노드, 테스트), relay: 외부 STOMP 브로커, redis: 노드 안의 브로커 + Redis pub/sub으로 다른 노드에 전달
+    @Value("${socket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${socket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${socket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${socket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${socket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${socket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // 가상 스레드 실행 모드 (config/VirtualThreadConfig)
+    @Value("${sok.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    // 가상 스레드 모드에서 채널별 스레드 수 (플랫폼 스레드일 때는 CPU 코어 수의 2배)
+    @Value("${sok.threads.virtual.channel-pool-size:256}")
+    private int virtualChannelPoolSize;
+
+    // 채널 스레드 수 (0이면 CPU 코어 수의 2배)와 대기열 길이. 대기열이 차면 보내는 스레드가 직접 처리해 속도를 늦춘다
+    @Value("${socket.channel.inbound.pool-size:0}")
+    private int inboundPoolSize;
+
+    @Value("${socket.channel.inbound.queue-capacity:2000}")
+    private int inboundQueueCapacity;
+
+    @Value("${socket.channel.outbound.pool-size:0}")
+    private int outboundPoolSize;
+
+    @Value("${socket.channel.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+
+    // 클라이언트가 보내는 메시지 하나의 최대 크기 (코드 실행 요청에 코드 전체가 들어간다)
+    @Value("${socket.transport.message-size-limit:524288}")
+    private int messageSizeLimit;
+
+    // 세션마다 보내지 못하고 쌓아 둘 수 있는 크기와 한 번 보내는 데 걸릴 수 있는 시간 (넘으면 연결을 끊는다)
+    @Value("${socket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${socket.transport.send-time-limit-millis:10000}")
+    private int sendTimeLimitMillis;
+
+    // 연결 후 첫 메시지(CONNECT)를 기다리는 시간
+    @Value("${socket.transport.time-to-first-message-millis:30000}")
+    private int timeToFirstMessageMillis;
+
     // 엔드포인트를 등록하기 위해 registerStompEndpoints method를 overide 한다.
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -21,8 +95,73 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     // Message broker를 설정
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/sub");
+        switch (brokerMode) {
+            case "simple" -> registry.enableSimpleBroker("/sub");
+            case "relay" -> {
+                // 구독, 방송을 모두 외부 브로커가 처리하므로 어느 노드에 붙어 있어도 같은 방 메시지를 받는다
+                StompBrokerRelayRegistration relay = registry.enableStompBrokerRelay("/sub")
+                        .setRelayHost(relayHost)
+                        .setRelayPort(relayPort)
+                        .setClientLogin(relayLogin)
+                        .setClientPasscode(relayPasscode)
+                        .setSystemLogin(relayLogin)
+                        .setSystemPasscode(relayPasscode);
+                if (StringUtils.hasText(relayVirtualHost)) {
+                    relay.setVirtualHost(relayVirtualHost);
+                }
+            }
+            case "redis" -> {
+                registry.enableSimpleBroker("/sub");
+                registry.configureBrokerChannel().interceptors(redisBrokerBridge.getObject());
+            }
+            default -> throw new IllegalStateException("unknown socket.broker.mode: " + brokerMode);
+        }
         registry.setApplicationDestinationPrefixes("/pub");
     }
 
+    // 클라이언트 메시지 처리 시간 측정
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompMetricsInterceptor);
+        // 가상 스레드 모드에서는 @MessageMapping 메서드가 DB, MongoDB 저장을 기다리는 동안 다른 메시지 처리가 밀리지 않도록 스레드를 늘린다
+        registration.taskExecutor(channelExecutor("clientInboundChannel-", inboundPoolSize, inboundQueueCapacity));
+    }
+
+    // 느린 클라이언트에게 보낼 프레임이 쌓이면 커서부터 버린다
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(slowConsumerGuard);
+        registration.taskExecutor(channelExecutor("clientOutboundChannel-", outboundPoolSize, outboundQueueCapacity));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMillis)
+                .setTimeToFirstMessage(timeToFirstMessageMillis)
+                .addDecoratorFactory(slowConsumerGuard);
+    }
+
+    private boolean useVirtualThreads() {
+        return virtualThreadsEnabled && VirtualThreads.isSupported();
+    }
+
+    private ThreadPoolTaskExecutor channelExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        if (useVirtualThreads()) {
+            executor.setThreadFactory(VirtualThreads.factory("stomp-virtual-"));
+            poolSize = virtualChannelPoolSize;
+        } else if (poolSize <= 0) {
+            poolSize = Runtime.getRuntime().availableProcessors() * 2;
+        }
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
 }
@@ -0,0 +1,47 @@
+package com.spoon.sok.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+
+/**
+ * STOMP 채널 스레드 풀의 대기열 길이와 처리 중인 스레드 수.
+ * inbound는 클라이언트가 보낸 메시지, outbound는 클라이언트로 보낼 메시지, broker는 서버에서 방송하는 메시지를 처리한다.
+ */
+@Configuration
+public class WebSocketMetricsConfig {
+
+    @Bean
+    public MeterBinder stompChannelMetrics(@Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inbound,
+                                           @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outbound,
+                                           @Qualifier("brokerChannelExecutor") ThreadPoolTaskExecutor broker) {
+        return meterRegistry -> Map.of("inbound", inbound, "outbound", outbound, "broker", broker)
+                .forEach((channel, executor) -> {
+                    Gauge.builder("stomp.channel.queued", executor, WebSocketMetricsConfig::queued)
+                            .description("처리를 기다리는 메시지 수")
+                            .tag("channel", channel)
+                            .register(meterRegistry);
+                    Gauge.builder("stomp.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                            .description("메시지를 처리 중인 스레드 수")
+                            .tag("channel", channel)
+                            .register(meterRegistry);
+                    Gauge.builder("stomp.channel.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                            .tag("channel", channel)
+                            .register(meterRegistry);
+                });
+    }
+
+    private static int queued(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            // 아직 초기화되지 않았거나 종료된 풀
+            return 0;
+        }
+    }
+}
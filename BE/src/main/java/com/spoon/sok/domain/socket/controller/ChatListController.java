@@ -1,14 +1,15 @@
 package com.spoon.sok.domain.socket.controller;
 
-import com.spoon.sok.domain.socket.dto.ChatWebSocketDto;
 import com.spoon.sok.domain.socket.repository.ChatRepository;
 import com.spoon.sok.domain.socket.service.ChatService;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 
 @RestController
@@ -16,13 +17,24 @@ import java.util.List;
 @RequestMapping("/api/chat")
 public class ChatListController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ChatService chatService;
     private final ChatRepository chatRepository;
 
+    // 스크롤을 올릴 때마다 이전 응답의 nextCursor를 before로 넘겨 그 앞의 메시지를 받는다
     @GetMapping("/{id}")
-    public ResponseEntity<?> getChatList(@PathVariable("id") Long studyInfoId) {
-        List<ChatWebSocketDto> result = chatService.getStudyChatList(studyInfoId);
-        return new ResponseEntity<List<ChatWebSocketDto>>(result, HttpStatus.OK);
+    public ResponseEntity<?> getChatList(@PathVariable("id") Long studyInfoId,
+                                         @RequestParam(value = "before", required = false) String before,
+                                         @RequestParam(value = "size", defaultValue = "50") int size) {
+        if (before != null && !ObjectId.isValid(before)) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("status", 400);
+            result.put("message", "before 값이 올바르지 않습니다.");
+            return new ResponseEntity<Map<String, Object>>(result, HttpStatus.BAD_REQUEST);
+        }
+        Map<String, Object> result = chatService.getStudyChatPage(studyInfoId, before, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        return new ResponseEntity<Map<String, Object>>(result, HttpStatus.OK);
     }
 
     // 삭제 테스트 컨트롤러 실제쓰이는건 아님
@@ -3,6 +3,8 @@ package com.spoon.sok.domain.socket.controller;
 import com.spoon.sok.domain.socket.service.CodeExecuteService;
 import com.spoon.sok.domain.socket.dto.*;
 import com.spoon.sok.domain.socket.service.ChatService;
+import com.spoon.sok.domain.socket.service.CursorAggregator;
+import com.spoon.sok.domain.socket.service.RunCoalescer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
@@ -16,11 +18,14 @@ public class SocketController {
     private final SimpMessagingTemplate simpMessagingTemplate;
     private final ChatService chatService;
     private final CodeExecuteService codeExecuteService;
+    private final RunCoalescer runCoalescer;
+    private final CursorAggregator cursorAggregator;
 
     @MessageMapping("/chat")
     public void sendMessage(ChatWebSocketDto chatDto, SimpMessageHeaderAccessor accessor) {
-        chatService.mongoInsert(chatDto);
+        // 먼저 방송하고, 저장은 모아서 한 번에 한다
         simpMessagingTemplate.convertAndSend("/sub/chat/" + chatDto.getStudyRoomId(), chatDto);
+        chatService.mongoInsert(chatDto);
     }
 
     @MessageMapping("/notice")
@@ -35,12 +40,22 @@ public class SocketController {
 
     @MessageMapping("/run")
     public void runCode(RunCodeRequestDto runCodeRequestDto, SimpMessageHeaderAccessor accessor) {
-        String response = codeExecuteService.RunCode(runCodeRequestDto);
-        simpMessagingTemplate.convertAndSend("/sub/run/" + runCodeRequestDto.getStudyRoomId(), response);
+        // 실행은 비동기로 처리하고 결과가 오면 전달 (메시지 처리 스레드는 바로 반환)
+        // 같은 코드와 입력이 이미 실행 중이면 그 결과가 스터디룸에 전달되므로 다시 실행하지 않는다
+        String destination = "/sub/run/" + runCodeRequestDto.getStudyRoomId();
+        runCoalescer.runOnce(runCodeRequestDto, () -> {
+            if (runCodeRequestDto.isStream()) {
+                // 실행 중 출력도 바로바로 전달
+                return codeExecuteService.RunCodeStreaming(runCodeRequestDto, frame -> simpMessagingTemplate.convertAndSend(destination, frame));
+            }
+            return codeExecuteService.RunCode(runCodeRequestDto)
+                    .thenAccept(response -> simpMessagingTemplate.convertAndSend(destination, response));
+        });
     }
 
     @MessageMapping("/cursor")
     public void cursor(CursorWebSocketDto cursorWebSocketDto, SimpMessageHeaderAccessor accessor) {
-        simpMessagingTemplate.convertAndSend("/sub/cursor/" + cursorWebSocketDto.getStudyRoomId(), cursorWebSocketDto);
+        // 바로 방송하지 않고 스터디룸별로 모아 일정 주기로 보낸다
+        cursorAggregator.update(cursorWebSocketDto);
     }
 }
@@ -0,0 +1,21 @@
+package com.spoon.sok.domain.socket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 다른 백엔드 노드에 전달하는 방송 메시지 (socket.broker.mode=redis).
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastEnvelopeDto {
+
+    // 보낸 노드 (자기 메시지는 다시 받지 않는다)
+    private String origin;
+    private String destination;
+    private String contentType;
+    private byte[] payload;
+
+}
@@ -14,6 +14,8 @@ public class CodeAPIRequestDto {
 
     private Long userId;
     private String nickname;
+    // 컴파일 서버는 이 값으로 실행할 언어를 고른다 (없으면 Java)
+    private String language;
     private String name;
     private String code;
     private String input;
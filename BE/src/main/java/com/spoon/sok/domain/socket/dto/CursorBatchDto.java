@@ -0,0 +1,18 @@
+package com.spoon.sok.domain.socket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * 스터디룸에 한 번에 보내는 커서 위치 묶음 (직전 전송 이후 움직인 사용자별 마지막 위치).
+ */
+@Getter
+@AllArgsConstructor
+public class CursorBatchDto {
+
+    private String studyRoomId;
+    private Collection<CursorWebSocketDto> cursors;
+
+}
@@ -14,5 +14,7 @@ public class RunCodeRequestDto {
     private Long studyRoomId;
     private String code;
     private String input;
+    // true면 실행 중 출력을 조각(chunk) 단위로 받는다
+    private boolean stream;
 
 }
@@ -5,6 +5,7 @@ import jakarta.persistence.Id;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Getter
@@ -21,6 +22,8 @@ public class Chat {
     private String time;
 
     public Chat(ChatWebSocketDto dto) {
+        // 모아서 저장하다 실패해 다시 저장해도 중복되지 않도록 _id를 미리 정한다
+        this.id = new ObjectId().toHexString();
         this.studyInfoId = dto.getStudyRoomId();
         this.userId = dto.getUserId();
         this.message = dto.getMessage();
@@ -1,13 +1,17 @@
 package com.spoon.sok.domain.socket.repository;
 
 import com.spoon.sok.domain.socket.entity.Chat;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
 public interface ChatRepository extends MongoRepository<Chat, String> {
 
-    List<Chat> findByStudyInfoId(Long studyInfoId);
+    // 최근 메시지부터 (studyInfoId, _id) 인덱스를 따라 읽는다
+    List<Chat> findByStudyInfoIdOrderByIdDesc(Long studyInfoId, Pageable pageable);
+
+    List<Chat> findByStudyInfoIdAndIdLessThanOrderByIdDesc(Long studyInfoId, String id, Pageable pageable);
 
     void deleteAllByUserId(Long userId);
 
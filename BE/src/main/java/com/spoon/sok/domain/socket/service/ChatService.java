@@ -4,42 +4,87 @@ package com.spoon.sok.domain.socket.service;
 import com.spoon.sok.domain.socket.dto.ChatWebSocketDto;
 import com.spoon.sok.domain.socket.entity.Chat;
 import com.spoon.sok.domain.socket.repository.ChatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.transaction.annotation.Transactional;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
-@RequiredArgsConstructor
+@Slf4j
 @Service
 @Transactional(readOnly = true)
 public class ChatService {
 
     private final ChatRepository chatRepository;
+    private final ChatWriteBehindQueue chatWriteBehindQueue;
+    private final MongoTemplate mongoTemplate;
+
+    public ChatService(ChatRepository chatRepository, ChatWriteBehindQueue chatWriteBehindQueue, MongoTemplate mongoTemplate) {
+        this.chatRepository = chatRepository;
+        this.chatWriteBehindQueue = chatWriteBehindQueue;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // 스터디룸별 최근 메시지 조회용 인덱스 (이미 있으면 그대로 둔다)
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(Chat.class).ensureIndex(new Index()
+                    .on("studyInfoId", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.DESC)
+                    .named("studyInfoId_id"));
+        } catch (RuntimeException e) {
+            log.warn("failed to create chat index", e);
+        }
+    }
 
-    @Transactional
     public void mongoInsert(ChatWebSocketDto dto) {
-        // 몽고디비 저장
-        Chat chat = new Chat(dto);
-        chatRepository.save(chat);
+        // 몽고디비 저장 (대기열에 넣고 모아서 저장)
+        chatWriteBehindQueue.add(new Chat(dto));
     }
 
-    public List<ChatWebSocketDto> getStudyChatList(Long studyInfoId) {
+    /**
+     * before(메시지 id)보다 앞선 메시지 size개를 오래된 순으로 반환한다. before가 없으면 가장 최근 메시지부터.
+     * 더 이전 메시지가 있으면 nextCursor에 이번 묶음에서 가장 오래된 메시지 id를 담는다 (없으면 null).
+     */
+    public Map<String, Object> getStudyChatPage(Long studyInfoId, String before, int size) {
+        // 한 개 더 읽어 다음 묶음이 있는지 확인
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<Chat> chatList = before == null
+                ? chatRepository.findByStudyInfoIdOrderByIdDesc(studyInfoId, pageRequest)
+                : chatRepository.findByStudyInfoIdAndIdLessThanOrderByIdDesc(studyInfoId, before, pageRequest);
 
-        List<ChatWebSocketDto> result = new ArrayList<>();
-        List<Chat> chatList = chatRepository.findByStudyInfoId(studyInfoId);
+        boolean hasMore = chatList.size() > size;
+        if (hasMore) {
+            chatList = chatList.subList(0, size);
+        }
 
+        List<ChatWebSocketDto> list = new ArrayList<>(chatList.size());
         for (Chat chat : chatList) {
             ChatWebSocketDto chatItem = new ChatWebSocketDto();
             chatItem.setStudyRoomId(chat.getStudyInfoId());
             chatItem.setUserId(chat.getUserId());
             chatItem.setMessage(chat.getMessage());
             chatItem.setDateTime(chat.getTime());
-            result.add(chatItem);
+            list.add(chatItem);
         }
+        Collections.reverse(list);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("chatList", list);
+        result.put("nextCursor", hasMore ? chatList.get(chatList.size() - 1).getId() : null);
         return result;
     }
 }
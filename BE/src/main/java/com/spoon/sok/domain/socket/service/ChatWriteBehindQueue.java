@@ -0,0 +1,254 @@
+package com.spoon.sok.domain.socket.service;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.InsertManyOptions;
+import com.spoon.sok.domain.socket.entity.Chat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 메시지를 바로 저장하지 않고 대기열에 모았다가 batch-size개가 차거나 flush-interval-millis가 지나면 한 번에 저장한다.
+ * 대기열이 가득 차면 넣는 쪽이 offer-timeout-millis까지 기다리고, 그래도 자리가 없거나 저장에 실패한 메시지는
+ * 로컬 파일(spill-file)에 한 줄씩 덧붙여 두었다가 spill-retry-interval-millis마다 다시 저장한다.
+ * 문서 _id를 미리 정해 두므로 같은 메시지를 다시 저장해도 중복되지 않는다.
+ */
+@Slf4j
+@Component
+public class ChatWriteBehindQueue {
+
+    // 다시 읽었을 때 BSON 타입(Int64 등)이 그대로 돌아오도록 타입 정보를 남기는 형식으로 쓴다
+    private static final JsonWriterSettings SPILL_JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private final MongoTemplate mongoTemplate;
+    private final BlockingQueue<Chat> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long offerTimeoutMillis;
+    private final long spillRetryIntervalMillis;
+    private final Path spillFile;
+    // 다시 저장하는 중인 파일 (실패하면 남겨 두고 다음에 이어서 저장한다)
+    private final Path replayFile;
+    private final Timer insertTimer;
+    private final Counter spilledCounter;
+
+    private final Thread flusher = new Thread(this::run, "chat-write-behind");
+    private volatile boolean running = true;
+
+    public ChatWriteBehindQueue(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                                @Value("${chat.write-behind.capacity:10000}") int capacity,
+                                @Value("${chat.write-behind.batch-size:200}") int batchSize,
+                                @Value("${chat.write-behind.flush-interval-millis:100}") long flushIntervalMillis,
+                                @Value("${chat.write-behind.offer-timeout-millis:50}") long offerTimeoutMillis,
+                                @Value("${chat.write-behind.spill-file:spill/chat.ndjson}") Path spillFile,
+                                @Value("${chat.write-behind.spill-retry-interval-millis:30000}") long spillRetryIntervalMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.spillFile = spillFile.toAbsolutePath();
+        this.replayFile = this.spillFile.resolveSibling(this.spillFile.getFileName() + ".replaying");
+        this.spillRetryIntervalMillis = spillRetryIntervalMillis;
+        this.insertTimer = Timer.builder("chat.mongo.insert")
+                .description("채팅 메시지 묶음 MongoDB 저장 시간")
+                .register(meterRegistry);
+        this.spilledCounter = Counter.builder("chat.write-behind.spilled")
+                .description("MongoDB에 저장하지 못해 파일에 남긴 채팅 메시지 수")
+                .register(meterRegistry);
+        Gauge.builder("chat.write-behind.queued", queue, BlockingQueue::size)
+                .description("저장을 기다리는 채팅 메시지 수")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // 종료할 때 대기열에 남은 메시지를 저장하고, 실패하면 파일에 남긴다
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        List<Chat> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (remaining.isEmpty()) {
+            return;
+        }
+        if (flusher.isAlive()) {
+            // 저장 스레드가 아직 저장(또는 파일 재저장) 중이면 함께 저장하지 않고 파일에 남겨 다음 실행에서 저장한다
+            log.warn("chat write-behind flusher did not stop in time, spilling {} queued chat messages to {}", remaining.size(), spillFile);
+            spill(remaining.stream().map(this::toDocument).toList());
+            return;
+        }
+        save(remaining);
+    }
+
+    public void add(Chat chat) {
+        try {
+            if (queue.offer(chat, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 저장이 밀려 대기열이 가득 찬 경우, 메시지를 잃지 않도록 파일에 남긴다
+        spill(List.of(toDocument(chat)));
+    }
+
+    private void run() {
+        List<Chat> batch = new ArrayList<>(batchSize);
+        long lastReplay = System.nanoTime();
+        while (running) {
+            try {
+                Chat first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                    while (batch.size() < batchSize) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long remaining = deadline - System.nanoTime();
+                        if (batch.size() >= batchSize || remaining <= 0) {
+                            break;
+                        }
+                        Chat next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    try {
+                        save(batch);
+                    } finally {
+                        batch.clear();
+                    }
+                }
+                if (System.nanoTime() - lastReplay >= TimeUnit.MILLISECONDS.toNanos(spillRetryIntervalMillis)) {
+                    lastReplay = System.nanoTime();
+                    replaySpill();
+                }
+            } catch (InterruptedException e) {
+                // stop()에서 깨운 경우, 모으던 메시지는 대기열에 남은 것과 함께 저장한다
+                if (!batch.isEmpty()) {
+                    save(batch);
+                    batch.clear();
+                }
+            } catch (RuntimeException e) {
+                // 저장 스레드가 멈추지 않도록
+                log.error("chat write-behind flush failed", e);
+            }
+        }
+    }
+
+    private void save(List<Chat> chats) {
+        List<Document> documents = chats.stream().map(this::toDocument).toList();
+        try {
+            insertTimer.record(() -> insert(documents));
+        } catch (RuntimeException e) {
+            log.warn("failed to save {} chat messages, spilling to {}", documents.size(), spillFile, e);
+            spill(documents);
+        }
+    }
+
+    // 순서 없이 저장해 일부가 실패해도 나머지는 저장되고, 이미 저장된 _id(다시 저장한 메시지)는 성공으로 본다
+    private void insert(List<Document> documents) {
+        try {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Chat.class))
+                    .insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            boolean duplicatesOnly = e.getWriteConcernError() == null && e.getWriteErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!duplicatesOnly) {
+                throw e;
+            }
+        }
+    }
+
+    private Document toDocument(Chat chat) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(chat, document);
+        return document;
+    }
+
+    private synchronized void spill(List<Document> documents) {
+        StringBuilder lines = new StringBuilder();
+        for (Document document : documents) {
+            lines.append(document.toJson(SPILL_JSON)).append('\n');
+        }
+        try {
+            Files.createDirectories(spillFile.getParent());
+            try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            spilledCounter.increment(documents.size());
+        } catch (IOException e) {
+            // 메시지 내용은 로그에 남기지 않는다
+            log.error("failed to spill {} chat messages to {}", documents.size(), spillFile, e);
+        }
+    }
+
+    // 파일에 남긴 메시지를 다시 저장한다. 도중에 실패하면 파일을 남겨 두고 다음 주기에 처음부터 다시 저장한다
+    private void replaySpill() {
+        try {
+            synchronized (this) {
+                if (Files.notExists(replayFile)) {
+                    if (Files.notExists(spillFile)) {
+                        return;
+                    }
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            List<Document> documents = new ArrayList<>(batchSize);
+            for (String line : Files.readAllLines(replayFile, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                documents.add(Document.parse(line));
+                if (documents.size() == batchSize) {
+                    insertTimer.record(() -> insert(documents));
+                    documents.clear();
+                }
+            }
+            if (!documents.isEmpty()) {
+                insertTimer.record(() -> insert(documents));
+            }
+            Files.delete(replayFile);
+            log.info("replayed spilled chat messages from {}", spillFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("failed to replay spilled chat messages, will retry", e);
+        }
+    }
+}
@@ -1,44 +1,170 @@
 package com.spoon.sok.domain.socket.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spoon.sok.domain.socket.dto.CodeAPIRequestDto;
 import com.spoon.sok.domain.socket.dto.RunCodeRequestDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class CodeExecuteService {
 
-    @Value("${AWS_API_GATEWAY_URL}")
-    private String AWS_API_GATEWAY_URL;
+    private final ObjectMapper objectMapper;
+    private final HttpClient codeExecuteHttpClient;
+    private final CodeExecutorGuard codeExecutorGuard;
+    private final CodeExecutorRegistry codeExecutorRegistry;
+    private final MeterRegistry meterRegistry;
 
-    @Value("${JAVA_COMPILE_SERVER}")
-    private String JAVA_COMPILE_SERVER;
+    // 실행 서버 응답을 기다리는 최대 시간 (실행 대기열에서 기다리는 시간 포함)
+    @Value("${code.execute.request-timeout-millis:30000}")
+    private long requestTimeoutMillis;
 
-    public String RunCode(RunCodeRequestDto runCodeRequestDto){
-        String code = runCodeRequestDto.getCode();
-        String input = runCodeRequestDto.getInput();
-        String name = UUID.randomUUID().toString();
-        Long userId = runCodeRequestDto.getUserId();
+    /**
+     * 실행 결과(JSON)를 비동기로 받는다. 실행 서버에 연결할 수 없으면 실패 결과를 돌려준다.
+     */
+    public CompletableFuture<String> RunCode(RunCodeRequestDto runCodeRequestDto) {
+        return run(codeExecutorRegistry.select(runCodeRequestDto.getLanguage()), runCodeRequestDto);
+    }
+
+    private CompletableFuture<String> run(CodeExecutor executor, RunCodeRequestDto runCodeRequestDto) {
+        String url = executor.getUrl();
+
+        // 컴파일 서버가 혼잡(429)하면 응답 본문에 안내 메시지가 담겨 오므로 상태 코드와 관계없이 본문을 전달
+        HttpRequest request = toHttpRequest(url, runCodeRequestDto);
+        return codeExecutorGuard.call(executor,
+                        () -> timed(executor, "single", () -> executor.track(codeExecuteHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)))))
+                .thenApply(response -> response.body().isEmpty() ? failure("코드 실행 서버 오류 (" + response.statusCode() + ")") : response.body())
+                .exceptionally(e -> failure(url, e));
+    }
+
+    /**
+     * 실행 중 출력 조각(chunk)과 마지막 실행 결과(done)를 받는 대로 frameConsumer에 넘긴다.
+     * 실시간 출력을 지원하지 않는 Python 게이트웨이는 실행이 끝난 뒤 결과 한 번만 넘긴다.
+     */
+    public CompletableFuture<Void> RunCodeStreaming(RunCodeRequestDto runCodeRequestDto, Consumer<String> frameConsumer) {
+        CodeExecutor executor = codeExecutorRegistry.select(runCodeRequestDto.getLanguage());
+        if (executor.isGateway()) {
+            return run(executor, runCodeRequestDto).thenAccept(frameConsumer);
+        }
+
+        String url = executor.getStreamUrl();
+        HttpRequest request = toHttpRequest(url, runCodeRequestDto);
+        return codeExecutorGuard.call(executor,
+                        () -> timed(executor, "stream", () -> executor.track(codeExecuteHttpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(new LineRelay(frameConsumer))))))
+                .<Void>thenApply(response -> null)
+                .exceptionally(e -> {
+                    frameConsumer.accept(failure(url, e));
+                    return null;
+                });
+    }
+
+    // 실행 서버 왕복 시간 (code.execute.round-trip), 스트리밍은 마지막 줄을 받을 때까지
+    private <T> CompletableFuture<T> timed(CodeExecutor executor, String mode, Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return call.get().whenComplete((response, e) -> sample.stop(Timer.builder("code.execute.round-trip")
+                .description("실행 서버 요청부터 응답 완료까지 걸린 시간")
+                .tag("executor", executor.getName())
+                .tag("mode", mode)
+                .tag("outcome", e == null ? "success" : "error")
+                .register(meterRegistry)));
+    }
 
-        // AWS API gateway Poat 요청
+    private HttpRequest toHttpRequest(String url, RunCodeRequestDto runCodeRequestDto) {
         CodeAPIRequestDto codeAPIRequestDto = new CodeAPIRequestDto();
 
-        codeAPIRequestDto.setCode(code);
-        codeAPIRequestDto.setName(name);
-        codeAPIRequestDto.setInput(input);
-        codeAPIRequestDto.setUserId(userId);
+        codeAPIRequestDto.setLanguage(runCodeRequestDto.getLanguage());
+        codeAPIRequestDto.setCode(runCodeRequestDto.getCode());
+        codeAPIRequestDto.setName(UUID.randomUUID().toString());
+        codeAPIRequestDto.setInput(runCodeRequestDto.getInput());
+        codeAPIRequestDto.setUserId(runCodeRequestDto.getUserId());
+
+        try {
+            return HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofMillis(requestTimeoutMillis))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(codeAPIRequestDto)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String failure(String url, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof ExecutorUnavailableException) {
+            // 차단 중에는 실행 서버를 부르지 않고 바로 안내
+            return failure(cause.getMessage());
+        }
+        log.warn("code execution request failed: {}", url, cause);
+        return failure("코드 실행 서버에 연결할 수 없습니다. 잠시 후 다시 실행해 주세요.");
+    }
+
+    // 실행 서버 응답과 같은 형식의 실패 결과
+    private String failure(String message) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("state", false);
+        response.put("output", List.of(message));
+        response.put("userId", "");
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 응답 본문을 줄 단위로 받는 대로 넘긴다.
+     */
+    private static class LineRelay implements Flow.Subscriber<String> {
+
+        private final Consumer<String> frameConsumer;
 
-        RestTemplate restTemplate = new RestTemplate();
-        HttpEntity<CodeAPIRequestDto> requestEntity = new HttpEntity<>(codeAPIRequestDto);
+        LineRelay(Consumer<String> frameConsumer) {
+            this.frameConsumer = frameConsumer;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.isEmpty()) {
+                frameConsumer.accept(line);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // sendAsync가 실패로 끝나므로 그쪽에서 처리
+        }
 
-        if (runCodeRequestDto.getLanguage().equals("Python")) {
-            return restTemplate.exchange(AWS_API_GATEWAY_URL, HttpMethod.POST, requestEntity, String.class).getBody();
-        } else {
-            return restTemplate.exchange(JAVA_COMPILE_SERVER, HttpMethod.POST, requestEntity, String.class).getBody();
+        @Override
+        public void onComplete() {
         }
     }
-}
\ No newline at end of file
+}
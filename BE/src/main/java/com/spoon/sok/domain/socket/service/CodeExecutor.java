@@ -0,0 +1,89 @@
+package com.spoon.sok.domain.socket.service;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 실행 서버 한 대. 이 서버로 보낸 뒤 아직 응답을 받지 못한 요청 수와 헬스 체크로 받은 부하를 가지고 있다.
+ */
+public class CodeExecutor {
+
+    private final String name;
+    private final String url;
+    // 실시간 출력과 헬스 체크를 지원하지 않는 실행 서버 (Python AWS 게이트웨이)
+    private final boolean gateway;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile int reportedLoad;
+    private volatile int concurrency = 1;
+
+    CodeExecutor(String name, String url, boolean gateway) {
+        this.name = name;
+        this.url = url;
+        this.gateway = gateway;
+    }
+
+    static CodeExecutor compileServer(String url) {
+        URI uri = URI.create(url);
+        return new CodeExecutor(uri.getAuthority() == null ? url : uri.getAuthority(), url, false);
+    }
+
+    static CodeExecutor gateway(String url) {
+        return new CodeExecutor("python-gateway", url, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getStreamUrl() {
+        return url + "/stream";
+    }
+
+    public String getStatusUrl() {
+        return url + "/status";
+    }
+
+    public boolean isGateway() {
+        return gateway;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * 동시 실행 수 대비 부하. 헬스 체크로 받은 대기열과 실행 중인 요청 수에, 그 뒤로 보낸 요청 수를 더해 계산한다.
+     */
+    double load() {
+        return (double) (outstanding.get() + reportedLoad) / concurrency;
+    }
+
+    // 응답을 받을 때까지 보낸 요청 수에 포함한다
+    <T> CompletableFuture<HttpResponse<T>> track(CompletableFuture<HttpResponse<T>> response) {
+        outstanding.incrementAndGet();
+        return response.whenComplete((result, e) -> outstanding.decrementAndGet());
+    }
+
+    void reportStatus(int queued, int running, int concurrency) {
+        // 보낸 요청은 이미 서버 대기열과 실행 수에 들어가 있으므로 그만큼은 빼고 센다
+        this.reportedLoad = Math.max(0, queued + running - outstanding.get());
+        this.concurrency = Math.max(1, concurrency);
+        this.healthy = true;
+    }
+
+    void reportUnhealthy() {
+        this.healthy = false;
+    }
+}
@@ -0,0 +1,61 @@
+package com.spoon.sok.domain.socket.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 실행 서버(서버별) 호출을 서킷 브레이커와 벌크헤드로 감싼다.
+ * 실행 서버가 느려지거나 죽어도 호출이 쌓이지 않고, 차단 중에는 바로 {@link ExecutorUnavailableException}으로 끝난다.
+ */
+@Component
+@RequiredArgsConstructor
+public class CodeExecutorGuard {
+
+    private final CircuitBreakerRegistry codeExecuteCircuitBreakerRegistry;
+    private final BulkheadRegistry codeExecuteBulkheadRegistry;
+
+    public <T> CompletableFuture<HttpResponse<T>> call(CodeExecutor executor, Supplier<CompletableFuture<HttpResponse<T>>> request) {
+        String name = executor.getName();
+        Bulkhead bulkhead = codeExecuteBulkheadRegistry.bulkhead(name);
+        CircuitBreaker circuitBreaker = codeExecuteCircuitBreakerRegistry.circuitBreaker(name);
+
+        if (!bulkhead.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(new ExecutorUnavailableException("실행 요청이 많습니다. 잠시 후 다시 실행해 주세요."));
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.onComplete();
+            return CompletableFuture.failedFuture(new ExecutorUnavailableException("코드 실행 서버가 응답하지 않아 잠시 실행을 중단했습니다. 잠시 후 다시 실행해 주세요."));
+        }
+
+        long start = circuitBreaker.getCurrentTimestamp();
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            bulkhead.onComplete();
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((response, e) -> {
+            bulkhead.onComplete();
+            long duration = circuitBreaker.getCurrentTimestamp() - start;
+            if (e != null) {
+                circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(), e);
+            } else if (response.statusCode() >= 500) {
+                // 429(혼잡)는 실행 서버가 스스로 거절한 것이므로 실패로 세지 않는다
+                circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(), new IllegalStateException("executor responded " + response.statusCode()));
+            } else {
+                circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+            }
+        });
+    }
+}
@@ -0,0 +1,194 @@
+package com.spoon.sok.domain.socket.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 언어별 실행 서버 목록. 컴파일 서버를 여러 대 두면 부하가 가장 적은 서버로 요청을 보낸다.
+ * 부하는 이 서버가 보낸 뒤 응답을 기다리는 요청 수와, 주기적으로 조회하는 각 서버의 대기열/실행 수(/status)를
+ * 서버의 동시 실행 수로 나눈 값이다. 헬스 체크에 실패했거나 서킷 브레이커가 열린 서버는 다른 서버가 있으면 고르지 않는다.
+ */
+@Slf4j
+@Component
+public class CodeExecutorRegistry {
+
+    private final HttpClient codeExecuteHttpClient;
+    private final ObjectMapper objectMapper;
+    private final CircuitBreakerRegistry codeExecuteCircuitBreakerRegistry;
+
+    private final List<CodeExecutor> javaExecutors;
+    private final List<CodeExecutor> pythonExecutors;
+    // 헬스 체크 대상 (같은 서버가 Java, Python을 함께 실행하면 한 번만)
+    private final Collection<CodeExecutor> compileServers;
+
+    private final long healthCheckIntervalMillis;
+    private final long healthCheckTimeoutMillis;
+    private final ScheduledExecutorService healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "code-execute-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CodeExecutorRegistry(HttpClient codeExecuteHttpClient, ObjectMapper objectMapper,
+                                CircuitBreakerRegistry codeExecuteCircuitBreakerRegistry, MeterRegistry meterRegistry,
+                                @Value("${AWS_API_GATEWAY_URL}") String awsApiGatewayUrl,
+                                // 컴파일 서버 실행 주소 목록 (쉼표로 구분)
+                                @Value("${code.execute.executors.java:${JAVA_COMPILE_SERVER}}") List<String> javaUrls,
+                                // 비워 두면 Java와 같은 컴파일 서버를 쓴다 (python-backend=local일 때)
+                                @Value("${code.execute.executors.python:}") List<String> pythonUrls,
+                                @Value("${code.execute.python-backend:gateway}") String pythonBackend,
+                                @Value("${code.execute.health-check.interval-millis:5000}") long healthCheckIntervalMillis,
+                                @Value("${code.execute.health-check.timeout-millis:2000}") long healthCheckTimeoutMillis) {
+        this.codeExecuteHttpClient = codeExecuteHttpClient;
+        this.objectMapper = objectMapper;
+        this.codeExecuteCircuitBreakerRegistry = codeExecuteCircuitBreakerRegistry;
+        this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+        this.healthCheckTimeoutMillis = healthCheckTimeoutMillis;
+
+        Map<String, CodeExecutor> byUrl = new LinkedHashMap<>();
+        this.javaExecutors = compileServers(javaUrls, byUrl);
+        if (pythonBackend.equalsIgnoreCase("local")) {
+            this.pythonExecutors = pythonUrls.isEmpty() ? javaExecutors : compileServers(pythonUrls, byUrl);
+        } else {
+            this.pythonExecutors = List.of(CodeExecutor.gateway(awsApiGatewayUrl));
+        }
+        this.compileServers = byUrl.values();
+
+        for (CodeExecutor executor : byUrl.values()) {
+            registerMetrics(meterRegistry, executor);
+        }
+        registerMetrics(meterRegistry, pythonExecutors.get(0));
+    }
+
+    private static List<CodeExecutor> compileServers(List<String> urls, Map<String, CodeExecutor> byUrl) {
+        List<CodeExecutor> executors = new ArrayList<>();
+        for (String url : urls) {
+            String trimmed = url.trim();
+            if (!trimmed.isEmpty()) {
+                executors.add(byUrl.computeIfAbsent(trimmed, CodeExecutor::compileServer));
+            }
+        }
+        if (executors.isEmpty()) {
+            throw new IllegalStateException("no code executor configured");
+        }
+        return List.copyOf(executors);
+    }
+
+    private static void registerMetrics(MeterRegistry meterRegistry, CodeExecutor executor) {
+        if (meterRegistry.find("code.execute.executor.outstanding").tag("executor", executor.getName()).gauge() != null) {
+            return;
+        }
+        Gauge.builder("code.execute.executor.outstanding", executor, CodeExecutor::getOutstanding)
+                .description("응답을 기다리는 실행 요청 수")
+                .tag("executor", executor.getName())
+                .register(meterRegistry);
+        Gauge.builder("code.execute.executor.load", executor, CodeExecutor::load)
+                .description("동시 실행 수 대비 부하")
+                .tag("executor", executor.getName())
+                .register(meterRegistry);
+        Gauge.builder("code.execute.executor.healthy", executor, e -> e.isHealthy() ? 1 : 0)
+                .tag("executor", executor.getName())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void startHealthChecks() {
+        if (!compileServers.isEmpty()) {
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stopHealthChecks() {
+        healthChecker.shutdownNow();
+    }
+
+    /**
+     * 요청을 보낼 실행 서버를 고른다.
+     */
+    public CodeExecutor select(String language) {
+        List<CodeExecutor> executors = "Python".equals(language) ? pythonExecutors : javaExecutors;
+        if (executors.size() == 1) {
+            return executors.get(0);
+        }
+
+        List<CodeExecutor> available = new ArrayList<>();
+        for (CodeExecutor executor : executors) {
+            if (isAvailable(executor)) {
+                available.add(executor);
+            }
+        }
+        if (available.isEmpty()) {
+            // 모두 사용할 수 없어 보이면 그대로 보내 보고, 실패는 서킷 브레이커가 처리한다
+            available = executors;
+        }
+
+        // 부하가 같으면 한 서버로 몰리지 않도록 시작 위치를 무작위로 정한다
+        int start = ThreadLocalRandom.current().nextInt(available.size());
+        CodeExecutor selected = null;
+        double selectedLoad = Double.MAX_VALUE;
+        for (int i = 0; i < available.size(); i++) {
+            CodeExecutor executor = available.get((start + i) % available.size());
+            double load = executor.load();
+            if (load < selectedLoad) {
+                selected = executor;
+                selectedLoad = load;
+            }
+        }
+        return selected;
+    }
+
+    private boolean isAvailable(CodeExecutor executor) {
+        if (!executor.isHealthy()) {
+            return false;
+        }
+        CircuitBreaker.State state = codeExecuteCircuitBreakerRegistry.circuitBreaker(executor.getName()).getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    private void checkHealth() {
+        for (CodeExecutor executor : compileServers) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(executor.getStatusUrl()))
+                    .timeout(Duration.ofMillis(healthCheckTimeoutMillis))
+                    .GET()
+                    .build();
+            codeExecuteHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                    .whenComplete((response, e) -> {
+                        if (e != null || response.statusCode() != 200) {
+                            if (executor.isHealthy()) {
+                                log.warn("code executor {} is unhealthy: {}", executor.getName(), e != null ? e.toString() : response.statusCode());
+                            }
+                            executor.reportUnhealthy();
+                            return;
+                        }
+                        try {
+                            JsonNode status = objectMapper.readTree(response.body());
+                            executor.reportStatus(status.path("queued").asInt(), status.path("running").asInt(), status.path("concurrency").asInt(1));
+                        } catch (Exception parseFailure) {
+                            executor.reportUnhealthy();
+                        }
+                    });
+        }
+    }
+}
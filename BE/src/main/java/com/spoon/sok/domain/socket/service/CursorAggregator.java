@@ -0,0 +1,92 @@
+package com.spoon.sok.domain.socket.service;
+
+import com.spoon.sok.domain.socket.dto.CursorBatchDto;
+import com.spoon.sok.domain.socket.dto.CursorWebSocketDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 커서 위치를 받는 대로 방송하지 않고, 스터디룸별로 사용자마다 마지막 위치만 모아 두었다가 일정 주기로 한 번에 보낸다.
+ * 스터디룸으로 나가는 커서 메시지 수가 사용자 수나 마우스 이벤트 빈도와 관계없이 주기당 하나가 된다.
+ */
+@Slf4j
+@Component
+public class CursorAggregator {
+
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final long flushIntervalMillis;
+    private final Counter updateCounter;
+    private final Counter frameCounter;
+
+    // 스터디룸 -> (userId -> 마지막 위치), 보낸 스터디룸은 통째로 꺼내므로 움직임이 없는 방은 남지 않는다
+    private final Map<String, Map<Long, CursorWebSocketDto>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cursor-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CursorAggregator(SimpMessagingTemplate simpMessagingTemplate, MeterRegistry meterRegistry,
+                            // 기본 30Hz
+                            @Value("${socket.cursor.flush-interval-millis:33}") long flushIntervalMillis) {
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.updateCounter = Counter.builder("socket.cursor.updates")
+                .description("받은 커서 위치 수")
+                .register(meterRegistry);
+        this.frameCounter = Counter.builder("socket.cursor.frames")
+                .description("스터디룸으로 보낸 커서 묶음 수")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void startFlushing() {
+        flusher.scheduleAtFixedRate(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopFlushing() {
+        flusher.shutdownNow();
+    }
+
+    public void update(CursorWebSocketDto cursor) {
+        if (cursor.getStudyRoomId() == null || cursor.getUserId() == null) {
+            return;
+        }
+        updateCounter.increment();
+        // compute는 키 단위로 원자적이므로 flush가 방을 꺼내는 중에 들어온 위치는 다음 묶음으로 간다
+        pending.compute(cursor.getStudyRoomId(), (studyRoomId, cursors) -> {
+            Map<Long, CursorWebSocketDto> latest = cursors == null ? new ConcurrentHashMap<>() : cursors;
+            latest.put(cursor.getUserId(), cursor);
+            return latest;
+        });
+    }
+
+    void flush() {
+        for (String studyRoomId : pending.keySet()) {
+            Map<Long, CursorWebSocketDto> cursors = pending.remove(studyRoomId);
+            if (cursors == null || cursors.isEmpty()) {
+                continue;
+            }
+            try {
+                simpMessagingTemplate.convertAndSend("/sub/cursor/" + studyRoomId, new CursorBatchDto(studyRoomId, cursors.values()));
+                frameCounter.increment();
+            } catch (RuntimeException e) {
+                // 한 방의 전송 실패로 주기 작업이 멈추지 않도록
+                log.warn("failed to send cursor batch to study room {}", studyRoomId, e);
+            }
+        }
+    }
+}
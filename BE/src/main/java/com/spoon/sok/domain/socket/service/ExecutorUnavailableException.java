@@ -0,0 +1,13 @@
+package com.spoon.sok.domain.socket.service;
+
+/**
+ * 서킷 브레이커가 열려 있거나 동시 실행 한도를 넘어 실행 서버를 호출하지 않았을 때 발생
+ */
+public class ExecutorUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ExecutorUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,71 @@
+package com.spoon.sok.domain.socket.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spoon.sok.domain.socket.dto.BroadcastEnvelopeDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * 이 노드에서 스터디룸(/sub/**)으로 방송하는 메시지를 Redis로도 발행해 다른 노드의 구독자에게 전달한다.
+ * 이 노드의 구독자에게는 그대로 바로 전달하고, 다른 노드는 {@link RedisBrokerSubscriber}가 받아 자기 브로커로 넘긴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "socket.broker.mode", havingValue = "redis")
+public class RedisBrokerBridge implements ChannelInterceptor {
+
+    static final String NODE_ID = UUID.randomUUID().toString();
+    // 다른 노드에서 받아 넘긴 메시지 표시 (다시 발행하지 않는다)
+    static final String RELAYED_HEADER = "sokRelayed";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final Counter publishFailures;
+
+    public RedisBrokerBridge(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${socket.broker.redis.channel:sok:stomp:broadcast}") String channel) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.publishFailures = Counter.builder("socket.broker.redis.publish.failures")
+                .description("Redis로 발행하지 못한 방송 메시지 수")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel messageChannel) {
+        MessageHeaders headers = message.getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (headers.containsKey(RELAYED_HEADER) || SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || destination == null || !destination.startsWith("/sub/") || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        try {
+            BroadcastEnvelopeDto envelope = new BroadcastEnvelopeDto(NODE_ID, destination,
+                    contentType == null ? null : contentType.toString(), payload);
+            stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(envelope));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // 발행에 실패해도 이 노드의 구독자에게는 전달한다
+            publishFailures.increment();
+            log.warn("failed to publish broadcast to redis: {}", destination, e);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,78 @@
+package com.spoon.sok.domain.socket.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spoon.sok.domain.socket.dto.BroadcastEnvelopeDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+
+/**
+ * 다른 노드가 Redis로 발행한 방송 메시지를 받아 이 노드의 브로커로 넘긴다 (socket.broker.mode=redis).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "socket.broker.mode", havingValue = "redis")
+public class RedisBrokerSubscriber implements MessageListener {
+
+    private final ObjectMapper objectMapper;
+    private final MessageChannel brokerChannel;
+    private final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+
+    public RedisBrokerSubscriber(RedisConnectionFactory redisConnectionFactory, ObjectMapper objectMapper,
+                                 @Qualifier("brokerChannel") MessageChannel brokerChannel,
+                                 @Value("${socket.broker.redis.channel:sok:stomp:broadcast}") String channel) {
+        this.objectMapper = objectMapper;
+        this.brokerChannel = brokerChannel;
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    @PostConstruct
+    public void start() {
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        container.destroy();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        BroadcastEnvelopeDto envelope;
+        try {
+            envelope = objectMapper.readValue(message.getBody(), BroadcastEnvelopeDto.class);
+        } catch (IOException e) {
+            log.warn("ignoring malformed broadcast from redis", e);
+            return;
+        }
+        if (RedisBrokerBridge.NODE_ID.equals(envelope.getOrigin())) {
+            return;
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(envelope.getDestination());
+        if (envelope.getContentType() != null) {
+            accessor.setContentType(MimeType.valueOf(envelope.getContentType()));
+        }
+        accessor.setHeader(RedisBrokerBridge.RELAYED_HEADER, true);
+        brokerChannel.send(MessageBuilder.createMessage(envelope.getPayload(), accessor.getMessageHeaders()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.spoon.sok.domain.socket.service;
+
+import com.spoon.sok.domain.socket.dto.RunCodeRequestDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 같은 스터디룸에서 같은 코드와 입력으로 동시에 들어온 실행 요청을 한 번만 실행한다.
+ * 실행 결과는 어차피 스터디룸 전체에 전달되므로, 이미 실행 중인 요청이 있으면 그 결과를 함께 받는다.
+ * 스트리밍 요청과 일반 요청은 받는 응답 형태(출력 조각과 최종 결과 / 결과 하나)가 다르므로 서로 합치지 않는다.
+ */
+@Component
+public class RunCoalescer {
+
+    private final Map<RunKey, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
+
+    public RunCoalescer(MeterRegistry meterRegistry) {
+        this.coalescedCounter = Counter.builder("code.execute.coalesced")
+                .description("이미 실행 중인 같은 요청에 합쳐진 실행 요청 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 같은 요청이 실행 중이 아니면 execution을 시작하고 true를 반환한다.
+     */
+    public boolean runOnce(RunCodeRequestDto runCodeRequestDto, Supplier<CompletableFuture<?>> execution) {
+        RunKey key = new RunKey(runCodeRequestDto.getStudyRoomId(), runCodeRequestDto.getLanguage(),
+                sha256(runCodeRequestDto.getCode()), sha256(runCodeRequestDto.getInput()), runCodeRequestDto.isStream());
+        CompletableFuture<Void> running = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, running) != null) {
+            coalescedCounter.increment();
+            return false;
+        }
+
+        try {
+            execution.get().whenComplete((result, e) -> release(key, running));
+        } catch (RuntimeException e) {
+            release(key, running);
+            throw e;
+        }
+        return true;
+    }
+
+    private void release(RunKey key, CompletableFuture<Void> running) {
+        inFlight.remove(key, running);
+        running.complete(null);
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest((text == null ? "" : text).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record RunKey(Long studyRoomId, String language, String codeHash, String inputHash, boolean stream) {
+    }
+}
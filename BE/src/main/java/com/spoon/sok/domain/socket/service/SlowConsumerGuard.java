@@ -0,0 +1,168 @@
+package com.spoon.sok.domain.socket.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 느린 클라이언트 때문에 보낼 메시지가 서버에 쌓이지 않도록 한다.
+ * 세션마다 outbound 채널에 넣었지만 아직 소켓으로 보내지 못한 프레임 수를 세고 (stomp.session.pending),
+ * 기준을 넘으면 커서 프레임부터 버리고, 계속 넘어 있거나 한도에 닿으면 연결을 끊는다.
+ * 커서는 다음 프레임에 방 전체의 최신 위치가 다시 오므로 버려도 따라잡은 뒤에는 잃는 것이 없다.
+ */
+@Slf4j
+@Component
+public class SlowConsumerGuard implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private static final String CURSOR_DESTINATION = "/sub/cursor/";
+
+    private final Map<String, SessionBuffer> sessions = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Counter droppedCursorFrames;
+    private final Counter evictedSessions;
+    private final int dropCursorThreshold;
+    private final int evictThreshold;
+    private final long evictAfterNanos;
+
+    public SlowConsumerGuard(MeterRegistry meterRegistry,
+                             @Value("${socket.outbound.drop-cursor-threshold:32}") int dropCursorThreshold,
+                             @Value("${socket.outbound.evict-threshold:1000}") int evictThreshold,
+                             @Value("${socket.outbound.evict-after-millis:5000}") long evictAfterMillis) {
+        this.meterRegistry = meterRegistry;
+        this.dropCursorThreshold = dropCursorThreshold;
+        this.evictThreshold = evictThreshold;
+        this.evictAfterNanos = TimeUnit.MILLISECONDS.toNanos(evictAfterMillis);
+        this.droppedCursorFrames = Counter.builder("stomp.outbound.dropped")
+                .description("느린 세션에 보내지 않고 버린 프레임 수")
+                .tag("reason", "cursor")
+                .register(meterRegistry);
+        this.evictedSessions = Counter.builder("stomp.session.evicted")
+                .description("보낼 프레임이 계속 쌓여 연결을 끊은 세션 수")
+                .register(meterRegistry);
+    }
+
+    // 세션이 연결되면 소켓으로 보낸 프레임을 셀 수 있도록 감싸서 넘긴다
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionBuffer buffer = new SessionBuffer(session);
+                sessions.put(session.getId(), buffer);
+                super.afterConnectionEstablished(buffer.counting);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                SessionBuffer buffer = sessions.remove(session.getId());
+                if (buffer != null) {
+                    meterRegistry.remove(buffer.gauge);
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SessionBuffer buffer = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (buffer == null) {
+            return message;
+        }
+
+        int pending = buffer.pending.get();
+        if (pending < dropCursorThreshold) {
+            buffer.over = false;
+            buffer.pending.incrementAndGet();
+            return message;
+        }
+
+        long now = System.nanoTime();
+        if (!buffer.over) {
+            buffer.overSince = now;
+            buffer.over = true;
+        }
+        if (pending >= evictThreshold || now - buffer.overSince >= evictAfterNanos) {
+            evict(buffer, pending);
+            return null;
+        }
+        if (isCursor(message)) {
+            droppedCursorFrames.increment();
+            return null;
+        }
+        buffer.pending.incrementAndGet();
+        return message;
+    }
+
+    private static boolean isCursor(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        return SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE
+                && destination != null && destination.startsWith(CURSOR_DESTINATION);
+    }
+
+    private void evict(SessionBuffer buffer, int pending) {
+        if (!buffer.evicted.compareAndSet(false, true)) {
+            return;
+        }
+        evictedSessions.increment();
+        log.warn("closing slow STOMP session {} with {} pending frames", buffer.session.getId(), pending);
+        try {
+            buffer.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("failed to close slow session {}", buffer.session.getId(), e);
+        }
+    }
+
+    private class SessionBuffer {
+
+        private final WebSocketSession session;
+        private final WebSocketSession counting;
+        // outbound 채널에 넣었지만 아직 소켓으로 보내지 못한 프레임 수
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean evicted = new AtomicBoolean();
+        private final Gauge gauge;
+        private volatile boolean over;
+        private volatile long overSince;
+
+        SessionBuffer(WebSocketSession session) {
+            this.session = session;
+            this.counting = new WebSocketSessionDecorator(session) {
+                @Override
+                public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                    try {
+                        super.sendMessage(message);
+                    } finally {
+                        // 하트비트, 오류 프레임처럼 outbound 채널을 거치지 않은 프레임도 있으므로 0 아래로는 내리지 않는다
+                        pending.updateAndGet(count -> count > 0 ? count - 1 : 0);
+                    }
+                }
+            };
+            this.gauge = Gauge.builder("stomp.session.pending", pending, AtomicInteger::get)
+                    .description("세션별로 보내지 못하고 쌓여 있는 프레임 수")
+                    .tag("session", session.getId())
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.spoon.sok.domain.socket.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * 클라이언트가 보낸 메시지를 @MessageMapping 메서드가 처리하는 시간을 목적지별로 잰다 (stomp.inbound.handle).
+ * 같은 메시지가 브로커 핸들러에도 전달되지만 그쪽은 재지 않는다.
+ */
+@Component
+public class StompMetricsInterceptor implements ExecutorChannelInterceptor {
+
+    // 목적지는 클라이언트가 마음대로 보낼 수 있으므로 SocketController의 @MessageMapping 목적지만 태그로 쓰고 나머지는 other로 묶는다
+    private static final Set<String> KNOWN_DESTINATIONS = Set.of(
+            "/pub/chat", "/pub/notice", "/pub/submit", "/pub/run", "/pub/cursor");
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<Timer.Sample> handling = new ThreadLocal<>();
+
+    public StompMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if (handler instanceof SimpAnnotationMethodMessageHandler
+                && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+            handling.set(Timer.start(meterRegistry));
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        Timer.Sample sample = handling.get();
+        if (sample == null) {
+            return;
+        }
+        handling.remove();
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        sample.stop(Timer.builder("stomp.inbound.handle")
+                .description("@MessageMapping 메서드 처리 시간")
+                .tag("destination", destination == null ? "none" : KNOWN_DESTINATIONS.contains(destination) ? destination : "other")
+                .tag("outcome", ex == null ? "success" : "error")
+                .register(meterRegistry));
+    }
+}
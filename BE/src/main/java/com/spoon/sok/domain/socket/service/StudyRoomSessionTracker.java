@@ -0,0 +1,109 @@
+package com.spoon.sok.domain.socket.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 접속한 STOMP 세션 수와 스터디룸별 세션 수를 메트릭으로 내보낸다.
+ * /sub/{종류}/{스터디룸 번호}를 하나라도 구독한 세션을 그 스터디룸에 있는 것으로 센다.
+ */
+@Component
+public class StudyRoomSessionTracker {
+
+    private static final Pattern ROOM_DESTINATION = Pattern.compile("^/sub/[^/]+/(\\d+)$");
+
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    // 세션 -> (구독 id -> 스터디룸 번호)
+    private final Map<String, Map<String, Long>> subscriptions = new HashMap<>();
+    private final MultiGauge roomSessions;
+
+    public StudyRoomSessionTracker(MeterRegistry meterRegistry) {
+        Gauge.builder("stomp.sessions", sessions, Set::size)
+                .description("접속 중인 STOMP 세션 수")
+                .register(meterRegistry);
+        this.roomSessions = MultiGauge.builder("stomp.room.sessions")
+                .description("스터디룸별 접속 세션 수")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (sessionId != null) {
+            sessions.add(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null || destination == null) {
+            return;
+        }
+        Matcher matcher = ROOM_DESTINATION.matcher(destination);
+        if (!matcher.matches()) {
+            return;
+        }
+        synchronized (subscriptions) {
+            subscriptions.computeIfAbsent(accessor.getSessionId(), id -> new HashMap<>())
+                    .put(accessor.getSubscriptionId(), Long.parseLong(matcher.group(1)));
+            publish();
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        synchronized (subscriptions) {
+            Map<String, Long> sessionSubscriptions = subscriptions.get(accessor.getSessionId());
+            if (sessionSubscriptions != null && sessionSubscriptions.remove(accessor.getSubscriptionId()) != null) {
+                if (sessionSubscriptions.isEmpty()) {
+                    subscriptions.remove(accessor.getSessionId());
+                }
+                publish();
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+        synchronized (subscriptions) {
+            if (subscriptions.remove(event.getSessionId()) != null) {
+                publish();
+            }
+        }
+    }
+
+    // 세션이 모두 나간 스터디룸의 게이지는 지운다
+    private void publish() {
+        Map<Long, Set<String>> rooms = new HashMap<>();
+        subscriptions.forEach((sessionId, sessionSubscriptions) -> sessionSubscriptions.values()
+                .forEach(roomId -> rooms.computeIfAbsent(roomId, id -> new HashSet<>()).add(sessionId)));
+
+        List<MultiGauge.Row<?>> rows = rooms.entrySet().stream()
+                .map(room -> MultiGauge.Row.of(Tags.of("studyRoomId", String.valueOf(room.getKey())), room.getValue().size()))
+                .collect(Collectors.toList());
+        roomSessions.register(rows, true);
+    }
+}
@@ -0,0 +1,184 @@
+package com.spoon.sok.util;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * p6spy가 모든 SQL을 로그로 남기는 대신, 쿼리 형태(값을 ?로 바꾼 SQL)별 실행 시간만 메트릭(sql.query)으로 모은다.
+ * 느린 쿼리와 일부 표본만 로그로 남기고, sql.statements 로거를 DEBUG로 바꾸면 실행 중에도 모든 SQL을 값과 함께 남긴다.
+ * (POST /actuator/loggers/sql.statements {"configuredLevel": "DEBUG"})
+ */
+@Slf4j
+@Component
+public class SqlTimingListener extends SimpleJdbcEventListener {
+
+    private static final Logger statementLog = LoggerFactory.getLogger("sql.statements");
+    private static final String OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final long slowQueryNanos;
+    private final double sampleRate;
+    private final int maxSignatures;
+
+    // 실행한 SQL 문자열 -> 타이머 (같은 문자열을 매번 정규화하지 않도록)
+    private final Map<String, Timer> timersBySql = new ConcurrentHashMap<>();
+    // 쿼리 형태 -> 타이머 (max-signatures개까지만 담고, 나머지 형태는 otherTimer로 센다)
+    private final Map<String, Timer> timersBySignature = new ConcurrentHashMap<>();
+    private final AtomicInteger signatureCount = new AtomicInteger();
+    private final Timer otherTimer;
+
+    public SqlTimingListener(MeterRegistry meterRegistry,
+                             @Value("${sql.timing.slow-query-millis:200}") long slowQueryMillis,
+                             @Value("${sql.timing.sample-rate:0.001}") double sampleRate,
+                             @Value("${sql.timing.max-signatures:300}") int maxSignatures) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+        this.sampleRate = sampleRate;
+        this.maxSignatures = maxSignatures;
+        this.otherTimer = register(OTHER);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        if (sql == null || sql.isEmpty()) {
+            return;
+        }
+        timerFor(sql).record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+
+        // 값을 채운 SQL은 만드는 비용이 있으므로 로그를 남길 때만 만든다
+        if (statementLog.isDebugEnabled()) {
+            statementLog.debug("{} ms | {}", TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), statementInformation.getSqlWithValues());
+        } else if (timeElapsedNanos >= slowQueryNanos) {
+            log.warn("slow query {} ms | {}", TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), statementInformation.getSqlWithValues());
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("sampled query {} ms | {}", TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), statementInformation.getSqlWithValues());
+        }
+    }
+
+    Timer timerFor(String sql) {
+        Timer timer = timersBySql.get(sql);
+        if (timer != null) {
+            return timer;
+        }
+
+        // 형태가 너무 많으면(값을 이어 붙여 만든 쿼리 등) 나머지는 하나로 묶는다
+        // 한도 확인은 computeIfAbsent 안에서 해 동시에 처음 들어온 형태들이 한도를 넘지 않게 한다 (null이면 담지 않음)
+        timer = timersBySignature.computeIfAbsent(signature(sql), key -> reserveSignature() ? register(key) : null);
+        if (timer == null) {
+            timer = otherTimer;
+        }
+        // 값을 이어 붙여 만든 SQL은 문자열마다 달라지므로 캐시 크기를 제한한다
+        if (timersBySql.size() < maxSignatures * 4) {
+            timersBySql.put(sql, timer);
+        }
+        return timer;
+    }
+
+    private boolean reserveSignature() {
+        return signatureCount.getAndUpdate(count -> count < maxSignatures ? count + 1 : count) < maxSignatures;
+    }
+
+    private Timer register(String query) {
+        return Timer.builder("sql.query")
+                .description("쿼리 형태별 실행 시간")
+                .tag("query", query)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 공백을 하나로 줄이고 문자열, 숫자 값과 값 목록을 ?로 바꾼다.
+     */
+    static String signature(String sql) {
+        StringBuilder signature = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (signature.length() > 0) {
+                    signature.append(' ');
+                }
+                continue;
+            }
+            if (c == '\'') {
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        // '' 는 작은따옴표 이스케이프
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                appendPlaceholder(signature);
+                continue;
+            }
+            if (Character.isDigit(c) && !isIdentifierPart(signature)) {
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                appendPlaceholder(signature);
+                continue;
+            }
+            if (c == '?') {
+                i++;
+                appendPlaceholder(signature);
+                continue;
+            }
+            signature.append(c);
+            i++;
+        }
+        signature.setLength(trimSpaces(signature, signature.length()));
+        return signature.toString();
+    }
+
+    // 값 목록 (?, ?, ?)은 개수와 관계없이 (?)로 묶는다
+    private static void appendPlaceholder(StringBuilder signature) {
+        int end = trimSpaces(signature, signature.length());
+        if (end > 0 && signature.charAt(end - 1) == ',') {
+            int previous = trimSpaces(signature, end - 1);
+            if (previous > 0 && signature.charAt(previous - 1) == '?') {
+                signature.setLength(previous);
+                return;
+            }
+        }
+        signature.append('?');
+    }
+
+    private static int trimSpaces(StringBuilder signature, int end) {
+        while (end > 0 && signature.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isIdentifierPart(StringBuilder signature) {
+        if (signature.length() == 0) {
+            return false;
+        }
+        char previous = signature.charAt(signature.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '.' || previous == '`';
+    }
+}
@@ -0,0 +1,68 @@
+package com.spoon.sok.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 가상 스레드(JDK 21) 생성.
+ * 빌드와 배포 기준은 Java 17이므로 Thread.ofVirtual()을 리플렉션으로 찾고, 지원하지 않는 JVM에서는 {@link #isSupported()}가 false다.
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            // JDK 19, 20은 preview 기능이라 --enable-preview 없이는 여기서 실패한다
+            ofVirtual.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * prefix 뒤에 0부터 번호를 붙인 이름의 가상 스레드를 만든다.
+     */
+    public static ThreadFactory factory(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("virtual threads require JDK 21 or later (running " + Runtime.version() + ")");
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 작업마다 가상 스레드를 새로 만들어 실행한다 (풀을 두지 않는다).
+     */
+    public static Executor perTaskExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        return task -> factory.newThread(task).start();
+    }
+}
@@ -0,0 +1,89 @@
+package com.spoon.sok.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlTimingListenerTest {
+
+    @Test
+    void replacesStringLiteralsIncludingEscapedQuotes() {
+        assertThat(SqlTimingListener.signature("select * from member where nickname = 'O''Brien' and email = 'a@b.c'"))
+                .isEqualTo("select * from member where nickname = ? and email = ?");
+        assertThat(SqlTimingListener.signature("insert into t (a, b) values ('it''s', '')"))
+                .isEqualTo("insert into t (a, b) values (?)");
+    }
+
+    @Test
+    void replacesNumbers() {
+        assertThat(SqlTimingListener.signature("select * from study where id = 42 and score > 3.5 limit 10"))
+                .isEqualTo("select * from study where id = ? and score > ? limit ?");
+    }
+
+    @Test
+    void foldsValueListsRegardlessOfLength() {
+        String expected = "select * from member where id in (?)";
+        assertThat(SqlTimingListener.signature("select * from member where id in (?, ?, ?)")).isEqualTo(expected);
+        assertThat(SqlTimingListener.signature("select * from member where id in (?)")).isEqualTo(expected);
+        assertThat(SqlTimingListener.signature("select * from member where id in (1,2 , 3, 4)")).isEqualTo(expected);
+    }
+
+    @Test
+    void keepsDigitsInsideIdentifiers() {
+        assertThat(SqlTimingListener.signature("select t1.col2, m.user_id2 from table1 t1 join member m on m.id = t1.member_id where t1.`col3` = 7"))
+                .isEqualTo("select t1.col2, m.user_id2 from table1 t1 join member m on m.id = t1.member_id where t1.`col3` = ?");
+    }
+
+    @Test
+    void collapsesWhitespace() {
+        assertThat(SqlTimingListener.signature("  select\n\t a ,  b\r\n  from   t\n where x = ?  \n"))
+                .isEqualTo("select a , b from t where x = ?");
+    }
+
+    @Test
+    void sharesTimerForSameSignature() {
+        SqlTimingListener listener = new SqlTimingListener(new SimpleMeterRegistry(), 200, 0, 10);
+
+        assertThat(listener.timerFor("select * from t where id = 1"))
+                .isSameAs(listener.timerFor("select * from t  where id = 2"));
+    }
+
+    @Test
+    void capsSignaturesUnderConcurrentFirstUse() throws Exception {
+        int maxSignatures = 5;
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SqlTimingListener listener = new SqlTimingListener(meterRegistry, 200, 0, maxSignatures);
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String table = "table_" + (char) ('a' + t);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return listener.timerFor("select * from " + table);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 한도만큼의 형태와 나머지를 묶은 other
+        assertThat(meterRegistry.find("sql.query").timers()).hasSize(maxSignatures + 1);
+        assertThat(listener.timerFor("select * from table_z").getId().getTag("query")).isEqualTo("other");
+    }
+}
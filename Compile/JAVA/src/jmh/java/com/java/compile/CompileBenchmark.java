@@ -0,0 +1,39 @@
+package com.java.compile;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 캐시를 거치지 않은 메모리 컴파일 지연 시간.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CompileBenchmark {
+
+    @Param({"20", "500"})
+    public int lines;
+
+    private JavaSourceCompiler compiler;
+    private String code;
+
+    @Setup
+    public void setUp() {
+        compiler = new JavaSourceCompiler();
+        compiler.warmUp();
+        code = Sources.program(lines);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        compiler.close();
+    }
+
+    @Benchmark
+    public CompileResult compile() {
+        return compiler.compile("Main", code);
+    }
+
+}
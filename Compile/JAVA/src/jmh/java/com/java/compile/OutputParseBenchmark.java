@@ -0,0 +1,35 @@
+package com.java.compile;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실행 결과 stderr를 줄 단위 메시지로 나누는 비용 (깊은 재귀로 생긴 긴 스택 트레이스 기준).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class OutputParseBenchmark {
+
+    @Param({"10", "1024"})
+    public int frames;
+
+    private String stderr;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("Exception in thread \"main\" java.lang.StackOverflowError").append(System.lineSeparator());
+        for (int i = 0; i < frames; i++) {
+            builder.append("\tat Main.solve(Main.java:").append(i % 40 + 10).append(')').append(System.lineSeparator());
+        }
+        stderr = builder.toString();
+    }
+
+    @Benchmark
+    public List<String> parseErrorMessages() {
+        return CompileService.parseErrorMessages(stderr);
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.java.compile;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 간단한 프로그램 한 번 실행 (컴파일은 캐시에서).
+ * cold는 실행마다 JVM을 새로 띄우고(pool-size=0), warm은 미리 띄워 둔 워커 풀에서 실행한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RunBenchmark {
+
+    @Param({"cold", "warm"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private CompileService compileService;
+    private RequestDto requestDto;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        context = new SpringApplicationBuilder(CompileApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--compile.runner.pool-size=" + (mode.equals("cold") ? 0 : 1), "--compile.python.pool-size=0");
+        compileService = context.getBean(CompileService.class);
+
+        requestDto = new RequestDto();
+        requestDto.setCode(Sources.HELLO);
+        requestDto.setInput("");
+        // 워커가 준비될 때까지 기다린다
+        Thread.sleep(2000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseDto compileAndRun() {
+        ResponseDto responseDto = compileService.compileAndRun(requestDto);
+        if (!responseDto.isState()) {
+            throw new IllegalStateException(responseDto.getOutput().toString());
+        }
+        return responseDto;
+    }
+
+}
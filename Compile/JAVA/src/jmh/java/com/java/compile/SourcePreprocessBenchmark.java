@@ -0,0 +1,31 @@
+package com.java.compile;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청마다 소스에 @SuppressWarnings를 붙이는 전처리 비용 (gc 프로파일러의 gc.alloc.rate.norm으로 할당량 확인).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SourcePreprocessBenchmark {
+
+    // 줄 수 (짧은 풀이 ~ 긴 풀이)
+    @Param({"20", "500"})
+    public int lines;
+
+    private String code;
+
+    @Setup
+    public void setUp() {
+        code = Sources.program(lines);
+    }
+
+    @Benchmark
+    public String addSuppressWarnings() {
+        return SourcePreprocessor.addSuppressWarnings(code);
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.java.compile;
+
+/**
+ * 벤치마크용 예제 소스.
+ */
+final class Sources {
+
+    static final String HELLO = "public class Main {\n"
+            + "    public static void main(String[] args) {\n"
+            + "        System.out.println(\"hello\");\n"
+            + "    }\n"
+            + "}\n";
+
+    private Sources() {
+    }
+
+    // import 몇 줄과 메서드 여러 개로 이루어진, 대략 lines 줄짜리 풀이 코드
+    static String program(int lines) {
+        StringBuilder code = new StringBuilder();
+        code.append("import java.io.*;\n")
+                .append("import java.util.*;\n")
+                .append("\n")
+                .append("// 입력을 읽어 합을 출력한다\n")
+                .append("public class Main {\n")
+                .append("    public static void main(String[] args) throws IOException {\n")
+                .append("        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));\n")
+                .append("        System.out.println(solve(reader.readLine()));\n")
+                .append("    }\n");
+        int methods = Math.max(1, (lines - 12) / 6);
+        for (int i = 0; i < methods; i++) {
+            code.append("\n")
+                    .append("    static long helper").append(i).append("(List<Integer> values) {\n")
+                    .append("        long sum = 0; // \"합\"\n")
+                    .append("        for (int value : values) sum += value * ").append(i).append(";\n")
+                    .append("        return sum;\n")
+                    .append("    }\n");
+        }
+        code.append("\n")
+                .append("    static long solve(String line) {\n")
+                .append("        return line == null ? 0 : line.length();\n")
+                .append("    }\n")
+                .append("}\n");
+        return code.toString();
+    }
+
+}
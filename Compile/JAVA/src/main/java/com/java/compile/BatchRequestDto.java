@@ -0,0 +1,23 @@
+package com.java.compile;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class BatchRequestDto {
+
+    private Long userId;
+    private String name;
+    // "Java"(기본값) 또는 "Python"
+    private String language;
+    private String code;
+    private List<TestCaseDto> testCases;
+
+}
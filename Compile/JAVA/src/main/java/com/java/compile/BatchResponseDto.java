@@ -0,0 +1,19 @@
+package com.java.compile;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+public class BatchResponseDto {
+
+    boolean state;
+    // 컴파일 에러 등 테스트 케이스와 무관한 메시지
+    List<String> output;
+    List<TestCaseResultDto> results;
+    String userId;
+
+}
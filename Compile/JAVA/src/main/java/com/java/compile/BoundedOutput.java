@@ -0,0 +1,70 @@
+package com.java.compile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 실행 중 stdout/stderr를 모으는 버퍼. 두 스트림을 합쳐 최대 바이트 수를 넘으면 더 이상 받지 않는다.
+ * 한도를 넘는 순간 프로세스를 종료시키므로 앞부분만 남기면 충분하다.
+ */
+public class BoundedOutput {
+
+    private final int maxBytes;
+    private final Listener listener;
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+    private int size;
+    private boolean truncated;
+
+    public BoundedOutput(int maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * @param listener 받아들인 출력을 바로 전달받을 리스너 (실시간 출력용, 없으면 null)
+     */
+    public BoundedOutput(int maxBytes, Listener listener) {
+        this.maxBytes = maxBytes;
+        this.listener = listener;
+    }
+
+    /**
+     * @return 한도를 넘지 않았으면 true
+     */
+    public synchronized boolean append(boolean error, byte[] bytes, int offset, int length) {
+        int accepted = Math.min(length, maxBytes - size);
+        (error ? stderr : stdout).write(bytes, offset, accepted);
+        size += accepted;
+        if (listener != null && accepted > 0) {
+            listener.onOutput(error, bytes, offset, accepted);
+        }
+        if (accepted < length) {
+            truncated = true;
+        }
+        return !truncated;
+    }
+
+    public synchronized boolean isTruncated() {
+        return truncated;
+    }
+
+    public synchronized String getStdout() {
+        String text = stdout.toString(StandardCharsets.UTF_8);
+        if (truncated) {
+            text += System.lineSeparator() + "... (출력이 " + maxBytes + "바이트를 넘어 생략되었습니다)";
+        }
+        return text;
+    }
+
+    public synchronized String getStderr() {
+        return stderr.toString(StandardCharsets.UTF_8);
+    }
+
+    public interface Listener {
+
+        // 출력 순서대로 한 번에 하나씩 호출된다
+        void onOutput(boolean error, byte[] bytes, int offset, int length);
+
+    }
+
+}
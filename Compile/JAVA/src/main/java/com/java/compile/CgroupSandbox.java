@@ -0,0 +1,132 @@
+package com.java.compile;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * cgroup v2로 실행 프로세스(워커 JVM 또는 실행별 JVM)의 메모리와 프로세스 수를 제한한다.
+ * compile.limits.cgroup-root에 서버가 쓸 수 있는(위임된) cgroup 디렉터리를 지정했을 때만 사용하며,
+ * 그 아래에 프로세스마다 하위 cgroup을 만든다.
+ */
+@Slf4j
+@Component
+public class CgroupSandbox {
+
+    @Value("${compile.limits.cgroup-root}")
+    private String cgroupRoot;
+
+    @Value("${compile.limits.memory-bytes}")
+    private long memoryBytes;
+
+    @Value("${compile.limits.max-processes}")
+    private int maxProcesses;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private Path root;
+
+    @PostConstruct
+    public void init() {
+        if (cgroupRoot == null || cgroupRoot.isBlank()) {
+            return;
+        }
+        Path dir = Paths.get(cgroupRoot);
+        try {
+            // 하위 cgroup에서 memory, pids 컨트롤러를 쓸 수 있게 한다
+            String controllers = Files.readString(dir.resolve("cgroup.subtree_control")).trim();
+            if (!controllers.contains("memory") || !controllers.contains("pids")) {
+                Files.writeString(dir.resolve("cgroup.subtree_control"), "+memory +pids");
+            }
+            root = dir;
+            log.info("cgroup limits enabled under {}", root);
+        } catch (IOException e) {
+            log.warn("cgroup root {} is not usable, running without cgroup limits", dir, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return root != null;
+    }
+
+    /**
+     * 제한을 설정한 하위 cgroup을 만든다. 사용하지 않으면 null을 반환한다.
+     */
+    public Cgroup create(String prefix) throws IOException {
+        if (!isEnabled()) {
+            return null;
+        }
+        Path dir = root.resolve(prefix + sequence.incrementAndGet());
+        Files.createDirectories(dir);
+        Cgroup cgroup = new Cgroup(dir);
+        try {
+            cgroup.write("memory.max", Long.toString(memoryBytes));
+            cgroup.write("memory.swap.max", "0");
+            cgroup.write("pids.max", Integer.toString(maxProcesses));
+        } catch (IOException e) {
+            cgroup.close();
+            throw e;
+        }
+        return cgroup;
+    }
+
+    public static class Cgroup implements Closeable {
+
+        private final Path dir;
+
+        Cgroup(Path dir) {
+            this.dir = dir;
+        }
+
+        // 프로세스를 옮긴 뒤 만들어지는 자식 프로세스/스레드도 같은 cgroup에 속한다
+        public void add(long pid) throws IOException {
+            write("cgroup.procs", Long.toString(pid));
+        }
+
+        // 메모리 한도를 넘어 커널이 프로세스를 종료한 횟수
+        public long getOomKills() {
+            try {
+                for (String line : Files.readAllLines(dir.resolve("memory.events"), StandardCharsets.US_ASCII)) {
+                    if (line.startsWith("oom_kill ")) {
+                        return Long.parseLong(line.substring("oom_kill ".length()).trim());
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // 읽을 수 없으면 0으로 본다
+            }
+            return 0;
+        }
+
+        private void write(String file, String value) throws IOException {
+            Files.writeString(dir.resolve(file), value);
+        }
+
+        // 프로세스가 모두 종료된 뒤에만 지울 수 있다
+        @Override
+        public void close() {
+            for (int attempt = 0; attempt < 10; attempt++) {
+                try {
+                    Files.deleteIfExists(dir);
+                    return;
+                } catch (IOException e) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            log.warn("failed to remove cgroup {}", dir);
+        }
+    }
+
+}
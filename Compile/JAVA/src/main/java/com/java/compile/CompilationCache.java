@@ -0,0 +1,137 @@
+package com.java.compile;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 소스 + 컴파일 옵션의 해시를 키로 하는 컴파일 결과 캐시 (LRU, 항목 수/용량 제한).
+ * 스터디 방에서 같은 코드를 여러 명이 실행하면 컴파일 없이 바로 실행 단계로 넘어간다.
+ */
+@Component
+public class CompilationCache {
+
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, CompileResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    // 같은 소스가 동시에 들어오면 한 번만 컴파일
+    private final Map<String, CompletableFuture<CompileResult>> compiling = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public CompilationCache(@Value("${compile.cache.max-entries}") int maxEntries,
+                            @Value("${compile.cache.max-bytes}") long maxBytes,
+                            MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+
+        this.hitCounter = Counter.builder("compile.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("compile.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("compile.cache.entries", this, CompilationCache::size).register(meterRegistry);
+        Gauge.builder("compile.cache.bytes", this, CompilationCache::bytes).register(meterRegistry);
+    }
+
+    public CompileResult getOrCompile(String code, List<String> options, Supplier<CompileResult> compiler) {
+        String key = key(code, options);
+
+        CompileResult cached = get(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+
+        CompletableFuture<CompileResult> mine = new CompletableFuture<>();
+        CompletableFuture<CompileResult> other = compiling.putIfAbsent(key, mine);
+        if (other != null) {
+            hitCounter.increment();
+            return other.join();
+        }
+
+        missCounter.increment();
+        try {
+            CompileResult result = compiler.get();
+            if (result.isCacheable()) {
+                put(key, result);
+            }
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            compiling.remove(key);
+        }
+    }
+
+    public long getHitCount() {
+        return (long) hitCounter.count();
+    }
+
+    public long getMissCount() {
+        return (long) missCounter.count();
+    }
+
+    private synchronized CompileResult get(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(String key, CompileResult result) {
+        CompileResult previous = entries.put(key, result);
+        if (previous != null) {
+            totalBytes -= previous.estimateBytes();
+        }
+        totalBytes += result.estimateBytes();
+
+        // 가장 오래 사용되지 않은 항목부터 제거
+        Iterator<CompileResult> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+            totalBytes -= eldest.next().estimateBytes();
+            eldest.remove();
+        }
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private static String key(String code, List<String> options) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String option : options) {
+                digest.update(option.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            digest.update(code.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.java.compile;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 메모리 컴파일 결과 (성공 시 바이트코드, 실패 시 진단 메시지)
+ */
+@Getter
+public class CompileResult {
+
+    private final boolean success;
+    private final String mainClass;
+    private final Map<String, byte[]> classes;
+    private final List<String> diagnostics;
+    // 컴파일러 내부 오류처럼 소스와 무관한 실패는 캐시하지 않는다
+    private final boolean cacheable;
+
+    private CompileResult(boolean success, String mainClass, Map<String, byte[]> classes, List<String> diagnostics, boolean cacheable) {
+        this.success = success;
+        this.mainClass = mainClass;
+        this.classes = classes;
+        this.diagnostics = diagnostics;
+        this.cacheable = cacheable;
+    }
+
+    public static CompileResult success(String mainClass, Map<String, byte[]> classes) {
+        return new CompileResult(true, mainClass, Collections.unmodifiableMap(classes), Collections.emptyList(), true);
+    }
+
+    // 인터프리터 언어는 컴파일하지 않고 소스 파일을 그대로 실행한다
+    public static CompileResult script(String fileName, byte[] source) {
+        return new CompileResult(true, fileName, Map.of(fileName, source), Collections.emptyList(), false);
+    }
+
+    public static CompileResult failure(List<String> diagnostics) {
+        return new CompileResult(false, null, Collections.emptyMap(), Collections.unmodifiableList(diagnostics), true);
+    }
+
+    public static CompileResult error(String message) {
+        return new CompileResult(false, null, Collections.emptyMap(), List.of(message), false);
+    }
+
+    // 캐시 용량 계산용 대략적인 크기
+    public long estimateBytes() {
+        long bytes = 0;
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            bytes += entry.getKey().length() * 2L + entry.getValue().length;
+        }
+        for (String diagnostic : diagnostics) {
+            bytes += diagnostic.length() * 2L;
+        }
+        return bytes;
+    }
+
+}
@@ -1,92 +1,273 @@
 package com.java.compile;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 @Service
+@RequiredArgsConstructor
 public class CompileService {
 
-    private String createFile(String fileName, String code) {
-        try {
-            String localFileName = "./" + fileName;
-            Writer writer = new OutputStreamWriter(new FileOutputStream(localFileName), StandardCharsets.UTF_8);
+    // 실행 시간 제한 (5초)
+    private static final long TIMEOUT_MILLIS = 5000;
 
-            // 소스 코드에 @SuppressWarnings("unchecked") 어노테이션 추가
-            String annotatedCode = addSuppressWarnings(code);
-            writer.write(annotatedCode);
+    // 컴파일 결과를 요청 간에 재사용할 수 있도록 소스 파일 이름은 고정
+    private static final String SOURCE_NAME = "Main";
+    private static final String PYTHON_SOURCE_NAME = "Main.py";
 
-            writer.close();
-            return localFileName;
-        } catch (IOException e) {
+    private final JavaSourceCompiler javaSourceCompiler;
+    private final CompilationCache compilationCache;
+    private final RunnerPool runnerPool;
+    private final RunnerPool pythonRunnerPool;
+    private final WorkspaceManager workspaceManager;
+    private final ResourceLimiter resourceLimiter;
+    private final CgroupSandbox cgroupSandbox;
+
+    // 실행 결과로 받을 최대 출력 크기 (stdout + stderr)
+    @Value("${compile.output.max-bytes}")
+    private int maxOutputBytes;
+
+    // 워커 풀을 쓸 수 없을 때 띄우는 JVM에도 같은 옵션(힙 크기 등)을 적용
+    @Value("${compile.runner.jvm-options}")
+    private List<String> jvmOptions;
+
+    // Python 워커 풀을 쓸 수 없을 때 실행할 인터프리터
+    @Value("${compile.python.command}")
+    private String pythonCommand;
+
+    // 테스트 케이스 일괄 실행 전체에 허용하는 시간
+    @Value("${compile.batch.max-total-millis}")
+    private long maxBatchMillis;
+
+    // 자식 프로세스의 stdout/stderr를 동시에 읽어 파이프가 가득 차 멈추지 않도록 한다
+    private final ExecutorService drainExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "compile-drain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ResponseDto compileAndRun(RequestDto requestDto) {
+        return compileAndRun(requestDto, null);
+    }
+
+    /**
+     * runStream이 있으면 실행 중 출력을 바로 넘기고, 끝나면 완료 프레임을 보낸다.
+     */
+    public ResponseDto compileAndRun(RequestDto requestDto, RunStream runStream) {
+        boolean state = true;
+        List<String> output = new ArrayList<>();
+
+        String input = requestDto.getInput();
+
+        Language language = Language.from(requestDto.getLanguage());
+        CompileResult compileResult = compile(language, requestDto.getCode());
+        if (!compileResult.isSuccess()) {
+            output.addAll(compileResult.getDiagnostics());
+            ResponseDto responseDto = new ResponseDto(false, output, "");
+            if (runStream != null) {
+                runStream.finish(Verdict.CE, responseDto);
+            }
+            return responseDto;
+        }
+
+        Verdict status = null;
+        RunResult runResult = null;
+        try {
+            // 컴파일된 바이트코드(Python은 소스)만 실행 프로세스에 전달 (워밍업된 워커 풀 우선)
+            runResult = poolFor(language).run(compileResult.getClasses(), compileResult.getMainClass(), input, TIMEOUT_MILLIS, new BoundedOutput(maxOutputBytes, runStream));
+            if (runResult == null) {
+                if (runStream != null && runStream.hasEmitted()) {
+                    // 이미 출력을 보낸 스트림에 새 프로세스의 출력을 다시 보내지 않고 오류로 끝낸다
+                    throw new IOException("pooled run failed after streaming output");
+                }
+                runResult = runInNewProcess(language, compileResult, input, new BoundedOutput(maxOutputBytes, runStream));
+            }
+            state = collectOutput(runResult, output);
+            status = classify(runResult);
+        } catch (IOException | InterruptedException e) {
             e.printStackTrace();
-            return null;
+            output.add("compilation failed");
+            state = false;
+        }
+
+        // 결과 반환
+        String userId = "";
+        ResponseDto responseDto = runResult == null ? new ResponseDto(state, output, userId)
+                : new ResponseDto(state, output, userId, runResult.getTimeMillis(), runResult.getCpuMillis(), toKilobytes(runResult.getMemoryBytes()));
+        if (runStream != null) {
+            runStream.finish(status, responseDto);
         }
+        return responseDto;
     }
 
-    private String addSuppressWarnings(String code) {
-        // 소스 코드에서 import문을 분리
-        String[] lines = code.split("\\r?\\n");
-        List<String> importLines = new ArrayList<>();
-        List<String> otherLines = new ArrayList<>();
+    public BatchResponseDto compileAndRunBatch(BatchRequestDto batchRequestDto) {
+        Language language = Language.from(batchRequestDto.getLanguage());
+        CompileResult compileResult = compile(language, batchRequestDto.getCode());
+        if (!compileResult.isSuccess()) {
+            return new BatchResponseDto(false, new ArrayList<>(compileResult.getDiagnostics()), new ArrayList<>(), "");
+        }
+
+        List<TestCaseDto> testCases = batchRequestDto.getTestCases();
+        List<String> inputs = new ArrayList<>();
+        for (TestCaseDto testCase : testCases) {
+            inputs.add(testCase.getInput() == null ? "" : testCase.getInput());
+        }
 
-        boolean addedSuppressWarnings = false; // 이미 @SuppressWarnings가 추가되었는지 확인하는 플래그
+        boolean state = true;
+        List<TestCaseResultDto> results = new ArrayList<>();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchMillis);
+        try {
+            // 컴파일은 한 번만 하고, 워밍업된 워커 하나에서 테스트 케이스를 차례로 실행
+            List<RunResult> runResults = poolFor(language).runAll(compileResult.getClasses(), compileResult.getMainClass(), inputs,
+                    TIMEOUT_MILLIS, deadlineNanos, () -> new BoundedOutput(maxOutputBytes));
 
-        for (String line : lines) {
-            if (line.trim().startsWith("import ")) {
-                importLines.add(line);
-            } else {
-                if (!addedSuppressWarnings) {
-                    // 처음으로 @SuppressWarnings를 추가할 위치에 도달하면 추가
-                    otherLines.add("@SuppressWarnings(\"unchecked\")");
-                    addedSuppressWarnings = true;
+            for (int i = 0; i < testCases.size(); i++) {
+                RunResult runResult = i < runResults.size() ? runResults.get(i) : null;
+                if (runResult == null) {
+                    if (System.nanoTime() - deadlineNanos > 0) {
+                        // 전체 실행 시간 한도를 넘으면 남은 테스트 케이스는 실행하지 않는다
+                        results.add(new TestCaseResultDto(Verdict.SKIPPED, new ArrayList<>(), 0, -1, -1));
+                        state = false;
+                        continue;
+                    }
+                    runResult = runInNewProcess(language, compileResult, inputs.get(i), new BoundedOutput(maxOutputBytes));
                 }
-                otherLines.add(line);
+
+                TestCaseResultDto result = judge(runResult, testCases.get(i).getExpectedOutput());
+                if (result.getVerdict() != Verdict.AC && result.getVerdict() != Verdict.OK) {
+                    state = false;
+                }
+                results.add(result);
             }
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            return new BatchResponseDto(false, List.of("compilation failed"), results, "");
         }
 
-        // @SuppressWarnings("unchecked") 어노테이션이 추가되지 않은 경우, 소스 코드의 맨 마지막에 추가
-        if (!addedSuppressWarnings) {
-            otherLines.add("@SuppressWarnings(\"unchecked\")");
+        return new BatchResponseDto(state, new ArrayList<>(), results, "");
+    }
+
+    private CompileResult compile(Language language, String code) {
+        if (language == Language.PYTHON) {
+            // 문법 오류는 실행할 때 인터프리터가 알려 준다
+            return CompileResult.script(PYTHON_SOURCE_NAME, code.getBytes(StandardCharsets.UTF_8));
         }
+        // 소스 코드에 @SuppressWarnings("unchecked") 어노테이션 추가 후 메모리에서 컴파일 (같은 소스는 캐시 사용)
+        return compilationCache.getOrCompile(code, JavaSourceCompiler.OPTIONS,
+                () -> javaSourceCompiler.compile(SOURCE_NAME, code));
+    }
+
+    // 실행 결과를 출력 목록에 담고, 정상 실행 여부를 반환
+    private boolean collectOutput(RunResult runResult, List<String> output) {
+        boolean state = true;
+        if (runResult.isTimedOut()) {
+            // 시간 초과 발생
+            state = false;
+            output.add("시간초과");
+        } else if (runResult.isMemoryExceeded()) {
+            // 메모리 한도 초과로 종료
+            state = false;
+            output.add("메모리초과");
+        } else {
+            // 정상 출력 처리
+            output.add(runResult.getStdout().trim());
 
-        // import문과 다른 코드를 합쳐서 반환
-        StringBuilder annotatedCodeBuilder = new StringBuilder();
-        annotatedCodeBuilder.append(String.join(System.lineSeparator(), importLines))
-                .append(System.lineSeparator())
-                .append(System.lineSeparator())
-                .append(String.join(System.lineSeparator(), otherLines));
+            if (runResult.isOutputExceeded()) {
+                state = false;
+                output.add("출력초과");
+            }
 
-        return annotatedCodeBuilder.toString();
+            // 에러 출력 처리
+            if (!runResult.getStderr().isEmpty()) {
+                state = false;
+                // 에러 메시지 전부를 추가
+                output.addAll(parseErrorMessages(runResult.getStderr()));
+            }
+        }
+        return state;
     }
 
-    public ResponseDto compileAndRun(RequestDto requestDto) {
-        boolean state = true;
+    private TestCaseResultDto judge(RunResult runResult, String expectedOutput) {
         List<String> output = new ArrayList<>();
+        collectOutput(runResult, output);
 
-        String name = requestDto.getName();
-        String code = requestDto.getCode();
-        String input = requestDto.getInput();
+        Verdict verdict = classify(runResult);
+        if (verdict == Verdict.OK && expectedOutput != null) {
+            verdict = normalizeOutput(runResult.getStdout()).equals(normalizeOutput(expectedOutput)) ? Verdict.AC : Verdict.WA;
+        }
 
-        String FILE_NAME = name + ".java";
-        String CODE_NAME = createFile(FILE_NAME, code);
+        return new TestCaseResultDto(verdict, output, runResult.getTimeMillis(), runResult.getCpuMillis(), toKilobytes(runResult.getMemoryBytes()));
+    }
 
-        try {
-            String[] command = {
-                    System.getProperty("java.home") + "/bin/java",
-                    "-cp", ".",
-                    "-Dfile.encoding=UTF-8",
-                    CODE_NAME
-            };
+    // 예상 출력과 비교하기 전의 실행 결과
+    private static Verdict classify(RunResult runResult) {
+        if (runResult.isTimedOut()) {
+            return Verdict.TLE;
+        }
+        if (runResult.isMemoryExceeded()) {
+            return Verdict.MLE;
+        }
+        if (runResult.isOutputExceeded()) {
+            return Verdict.OLE;
+        }
+        if (!runResult.getStderr().isEmpty()) {
+            return Verdict.RE;
+        }
+        return Verdict.OK;
+    }
+
+    private static long toKilobytes(long bytes) {
+        return bytes < 0 ? -1 : bytes / 1024;
+    }
+
+    // 줄 끝 공백과 마지막 빈 줄은 채점에서 무시
+    private static String normalizeOutput(String text) {
+        StringBuilder normalized = new StringBuilder();
+        for (String line : text.split("\\r?\\n")) {
+            normalized.append(line.stripTrailing()).append('\n');
+        }
+        return normalized.toString().stripTrailing();
+    }
+
+    private RunnerPool poolFor(Language language) {
+        return language == Language.PYTHON ? pythonRunnerPool : runnerPool;
+    }
+
+    private RunResult runInNewProcess(Language language, CompileResult compileResult, String input, BoundedOutput output) throws IOException, InterruptedException {
+        // 실행마다 전용 작업 디렉터리를 만들고 끝나면 삭제
+        try (Workspace workspace = workspaceManager.createRun()) {
+            List<String> command = new ArrayList<>();
+            if (language == Language.PYTHON) {
+                workspace.write(compileResult.getMainClass(), compileResult.getClasses().get(compileResult.getMainClass()));
+                command.add(pythonCommand);
+                command.add("-s");
+                command.add("-E");
+                command.add("-X");
+                command.add("utf8");
+                command.add(compileResult.getMainClass());
+            } else {
+                workspace.writeClasses(compileResult.getClasses());
+                command.add(System.getProperty("java.home") + "/bin/java");
+                command.addAll(jvmOptions);
+                command.add("-cp");
+                command.add(workspace.getDir().toString());
+                command.add("-Dfile.encoding=UTF-8");
+                command.add(compileResult.getMainClass());
+            }
 
             // child process 실행
-            ProcessBuilder pb = new ProcessBuilder(command);
+            ProcessBuilder pb = new ProcessBuilder(resourceLimiter.limitRun(command, language == Language.PYTHON));
+            pb.directory(workspace.getDir().toFile());
             pb.redirectInput(ProcessBuilder.Redirect.PIPE);
             pb.redirectOutput(ProcessBuilder.Redirect.PIPE);
             pb.redirectError(ProcessBuilder.Redirect.PIPE);
@@ -95,66 +276,84 @@ public class CompileService {
             Map<String, String> environment = pb.environment();
             environment.put("LANG", "en_US.UTF-8");
 
-            Process child = pb.start();
+            CgroupSandbox.Cgroup cgroup = cgroupSandbox.create("run-");
+            try {
+                Process child = pb.start();
+                if (cgroup != null) {
+                    try {
+                        cgroup.add(child.pid());
+                    } catch (IOException e) {
+                        child.destroyForcibly();
+                        throw e;
+                    }
+                }
 
-            // 입력 데이터를 UTF-8 인코딩으로 전달
-            try (OutputStreamWriter writer = new OutputStreamWriter(child.getOutputStream(), StandardCharsets.UTF_8)) {
-                writer.write(input);
-            }
+                // 시간, CPU, 메모리 한도를 넘으면 종료
+                RunMonitor monitor = resourceLimiter.start(child, TIMEOUT_MILLIS, cgroup);
 
-            // 실행 시간 설정
-            long timeoutDuration = 5; // 5초
-            TimeUnit timeoutUnit = TimeUnit.SECONDS;
+                // 출력은 실행과 동시에 읽는다 (출력 한도를 넘으면 바로 종료)
+                Future<?> stdout = drainExecutor.submit(() -> drain(child, child.getInputStream(), output, false));
+                Future<?> stderr = drainExecutor.submit(() -> drain(child, child.getErrorStream(), output, true));
 
-            // 실행 시간 체크
-            boolean completed = child.waitFor(timeoutDuration, timeoutUnit);
-            if (!completed) {
-                // 시간 초과 발생
-                state = false;
-                output.add("시간초과");
-                child.destroyForcibly();
-            } else {
-                // 정상 출력 처리
-                try (InputStream stdout = child.getInputStream();
-                     BufferedReader reader = new BufferedReader(new InputStreamReader(stdout, StandardCharsets.UTF_8))) {
-                    String line;
-                    StringBuilder outputBuilder = new StringBuilder();
-                    while ((line = reader.readLine()) != null) {
-                        outputBuilder.append(line).append(System.lineSeparator());
-                    }
-                    output.add(outputBuilder.toString().trim());
+                // 입력 데이터를 UTF-8 인코딩으로 전달
+                try (OutputStreamWriter writer = new OutputStreamWriter(child.getOutputStream(), StandardCharsets.UTF_8)) {
+                    writer.write(input);
+                } catch (IOException e) {
+                    // 입력을 다 읽기 전에 종료된 프로그램
                 }
 
-                // 에러 출력 처리
-                try (InputStream stderr = child.getErrorStream();
-                     BufferedReader errorReader = new BufferedReader(new InputStreamReader(stderr, StandardCharsets.UTF_8))) {
-                    String errorLine;
-                    StringBuilder errorBuilder = new StringBuilder();
-                    while ((errorLine = errorReader.readLine()) != null) {
-                        errorBuilder.append(errorLine).append(System.lineSeparator());
-                        state = false; // 컴파일이 실패했으므로 state를 false로 설정
-                    }
+                // 실행 시간 체크
+                long startNanos = System.nanoTime();
+                boolean completed = child.waitFor(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                long timeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                if (!completed) {
+                    child.destroyForcibly();
+                }
 
-                    if (!state) {
-                        // 에러 메시지 전부를 추가
-                        output.addAll(parseErrorMessages(errorBuilder.toString()));
-                    }
+                try {
+                    stdout.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    stderr.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException | TimeoutException e) {
+                    throw new IOException("failed to read program output", e);
+                } finally {
+                    monitor.finish();
+                    child.waitFor(1, TimeUnit.SECONDS);
+                }
+
+                if (output.getStderr().contains(language == Language.PYTHON ? "MemoryError" : "java.lang.OutOfMemoryError")) {
+                    monitor.markMemoryExceeded();
+                }
+                boolean timedOut = (!completed || monitor.isTimedOut()) && !output.isTruncated() && !monitor.isMemoryExceeded();
+                return RunResult.of(output, timedOut, timeMillis, monitor);
+            } finally {
+                if (cgroup != null) {
+                    cgroup.close();
                 }
             }
-            // 컴파일이 실패했으므로 state를 false로 설정
-        } catch (IOException | InterruptedException e) {
-            e.printStackTrace();
-            output.add("compilation failed");
-            state = false;
         }
+    }
 
-        // 결과 반환
-        String userId = "";
-        return new ResponseDto(state, output, userId);
+    private void drain(Process child, InputStream stream, BoundedOutput output, boolean error) {
+        byte[] buffer = new byte[8192];
+        try (InputStream in = stream) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (!output.append(error, buffer, 0, read)) {
+                    child.destroyForcibly();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // 프로세스가 강제 종료되면 스트림이 닫힌다
+        }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        drainExecutor.shutdownNow();
+    }
 
-    private List<String> parseErrorMessages(String errorOutput) {
+    static List<String> parseErrorMessages(String errorOutput) {
         // 여러 줄의 에러 메시지를 추출하는 로직 구현
         String[] lines = errorOutput.split(System.lineSeparator());
         List<String> errorMessages = new ArrayList<>();
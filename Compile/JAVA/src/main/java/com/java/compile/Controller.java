@@ -1,13 +1,21 @@
 package com.java.compile;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpStatus;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 
 @RestController
 @RequestMapping("/compile")
@@ -15,11 +23,65 @@ import org.springframework.http.HttpStatus;
 public class Controller {
 
     private final CompileService compileService;
+    private final ExecutionScheduler executionScheduler;
+    private final ObjectMapper objectMapper;
+
+    @Value("${compile.batch.max-test-cases}")
+    private int maxTestCases;
 
     @PostMapping("")
-    public ResponseEntity<?> verifyEmail(@RequestBody RequestDto requestDto) {
-        ResponseDto compileResponseDto = compileService.compileAndRun(requestDto);
-        return new ResponseEntity<ResponseDto>(compileResponseDto, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<?>> verifyEmail(@RequestBody RequestDto requestDto) {
+        // 실행은 스케줄러 스레드에서 처리하고, 톰캣 스레드는 바로 반환
+        try {
+            return executionScheduler.submit(requestDto.getUserId(), () -> compileService.compileAndRun(requestDto))
+                    .thenApply(compileResponseDto -> new ResponseEntity<ResponseDto>(compileResponseDto, HttpStatus.OK));
+        } catch (SchedulerBusyException e) {
+            ResponseDto busyResponseDto = new ResponseDto(false, List.of("실행 요청이 많습니다. 잠시 후 다시 실행해 주세요."), "");
+            return CompletableFuture.completedFuture(new ResponseEntity<ResponseDto>(busyResponseDto, HttpStatus.TOO_MANY_REQUESTS));
+        }
+    }
+
+    @PostMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> runStreaming(@RequestBody RequestDto requestDto) {
+        // 출력이 생기는 대로 NDJSON 한 줄씩 보내고, 마지막 줄에 실행 결과를 보낸다
+        RunStream runStream = new RunStream(objectMapper);
+        try {
+            executionScheduler.submit(requestDto.getUserId(), () -> compileService.compileAndRun(requestDto, runStream))
+                    .whenComplete((compileResponseDto, e) -> {
+                        if (e != null) {
+                            runStream.finish(null, new ResponseDto(false, List.of("compilation failed"), ""));
+                        }
+                    });
+        } catch (SchedulerBusyException e) {
+            runStream.finish(null, new ResponseDto(false, List.of("실행 요청이 많습니다. 잠시 후 다시 실행해 주세요."), ""));
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).contentType(MediaType.APPLICATION_NDJSON).body(runStream);
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(runStream);
+    }
+
+    // 백엔드가 실행 서버를 고를 때 쓰는 현재 부하
+    @GetMapping("/status")
+    public ResponseEntity<StatusDto> status() {
+        return ResponseEntity.ok(new StatusDto(executionScheduler.getQueueDepth(), executionScheduler.getRunning(),
+                executionScheduler.getConcurrency(), executionScheduler.getQueueCapacity()));
+    }
+
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<?>> runTestCases(@RequestBody BatchRequestDto batchRequestDto) {
+        List<TestCaseDto> testCases = batchRequestDto.getTestCases();
+        if (testCases == null || testCases.isEmpty() || testCases.size() > maxTestCases) {
+            BatchResponseDto invalidResponseDto = new BatchResponseDto(false, List.of("테스트 케이스는 1개 이상 " + maxTestCases + "개 이하로 보내 주세요."), List.of(), "");
+            return CompletableFuture.completedFuture(new ResponseEntity<BatchResponseDto>(invalidResponseDto, HttpStatus.BAD_REQUEST));
+        }
+
+        // 테스트 케이스 묶음 전체를 한 번의 실행 요청으로 스케줄링
+        try {
+            return executionScheduler.submit(batchRequestDto.getUserId(), () -> compileService.compileAndRunBatch(batchRequestDto))
+                    .thenApply(batchResponseDto -> new ResponseEntity<BatchResponseDto>(batchResponseDto, HttpStatus.OK));
+        } catch (SchedulerBusyException e) {
+            BatchResponseDto busyResponseDto = new BatchResponseDto(false, List.of("실행 요청이 많습니다. 잠시 후 다시 실행해 주세요."), List.of(), "");
+            return CompletableFuture.completedFuture(new ResponseEntity<BatchResponseDto>(busyResponseDto, HttpStatus.TOO_MANY_REQUESTS));
+        }
     }
 
 }
@@ -0,0 +1,191 @@
+package com.java.compile;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 컴파일/실행 작업 스케줄러.
+ * 동시 실행 수를 코어 수 기준으로 제한하고, 대기열은 사용자별로 나눠 라운드 로빈으로 꺼낸다.
+ * 대기열이 가득 차면 기다리지 않고 {@link SchedulerBusyException}을 던진다.
+ */
+@Slf4j
+@Component
+public class ExecutionScheduler {
+
+    private static final long ANONYMOUS = Long.MIN_VALUE;
+
+    private final int queueCapacity;
+    private final int maxQueuedPerUser;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<Long, Deque<Job<?>>> queues = new HashMap<>();
+    private final Deque<Long> turns = new ArrayDeque<>();
+    private int queued;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    public ExecutionScheduler(@Value("${compile.scheduler.max-concurrency}") int maxConcurrency,
+                              @Value("${compile.scheduler.queue-capacity}") int queueCapacity,
+                              @Value("${compile.scheduler.max-queued-per-user}") int maxQueuedPerUser,
+                              MeterRegistry meterRegistry) {
+        this.queueCapacity = queueCapacity;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+
+        // 0 이하이면 CPU 코어 수만큼 동시에 실행
+        int concurrency = maxConcurrency > 0 ? maxConcurrency : Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(this::work, "compile-exec-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        Gauge.builder("compile.scheduler.queue.depth", this, ExecutionScheduler::getQueueDepth)
+                .description("실행 대기 중인 요청 수")
+                .register(meterRegistry);
+        Gauge.builder("compile.scheduler.running", running, AtomicInteger::get)
+                .description("실행 중인 요청 수")
+                .register(meterRegistry);
+        Gauge.builder("compile.scheduler.concurrency", workers, List::size)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("compile.scheduler.wait")
+                .description("대기열에서 기다린 시간")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("compile.scheduler.rejected")
+                .description("대기열이 가득 차서 거절한 요청 수")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Long userId, Supplier<T> task) {
+        long key = userId == null ? ANONYMOUS : userId;
+        Job<T> job = new Job<>(task);
+
+        lock.lock();
+        try {
+            Deque<Job<?>> userQueue = queues.get(key);
+            int userQueued = userQueue == null ? 0 : userQueue.size();
+            if (queued >= queueCapacity || userQueued >= maxQueuedPerUser) {
+                rejectedCounter.increment();
+                throw new SchedulerBusyException();
+            }
+            if (userQueue == null) {
+                userQueue = new ArrayDeque<>();
+                queues.put(key, userQueue);
+                turns.addLast(key);
+            }
+            userQueue.addLast(job);
+            queued++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return job.future;
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public int getConcurrency() {
+        return workers.size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    private Job<?> take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (queued == 0) {
+                notEmpty.await();
+            }
+            // 다음 차례의 사용자 작업을 꺼내고, 남은 작업이 있으면 맨 뒤로 보낸다
+            long key = turns.pollFirst();
+            Deque<Job<?>> userQueue = queues.get(key);
+            Job<?> job = userQueue.pollFirst();
+            if (userQueue.isEmpty()) {
+                queues.remove(key);
+            } else {
+                turns.addLast(key);
+            }
+            queued--;
+            return job;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Job<?> job;
+            try {
+                job = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            waitTimer.record(System.nanoTime() - job.enqueuedAt, TimeUnit.NANOSECONDS);
+            running.incrementAndGet();
+            try {
+                job.run();
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    private static class Job<T> {
+
+        private final Supplier<T> task;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+
+        Job(Supplier<T> task) {
+            this.task = task;
+        }
+
+        void run() {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                log.error("execution failed", e);
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+}
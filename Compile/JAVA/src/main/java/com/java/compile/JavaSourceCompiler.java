@@ -0,0 +1,241 @@
+package com.java.compile;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * javax.tools 기반 메모리 컴파일러.
+ * 소스와 클래스 파일을 디스크에 쓰지 않고, 컴파일러 인스턴스와 파일 매니저는 요청 간에 재사용한다.
+ * 최상위 타입마다 @SuppressWarnings("unchecked")를 붙여 컴파일하고(SourcePreprocessor), 오류 메시지는 받은 소스 기준으로 보여준다.
+ */
+@Component
+public class JavaSourceCompiler {
+
+    public static final List<String> OPTIONS = List.of("-encoding", "UTF-8", "-proc:none", "-Xlint:none");
+
+    private static final int WARM_UP_ROUNDS = 20;
+
+    private final JavaCompiler compiler;
+
+    // StandardJavaFileManager는 스레드 안전하지 않으므로 풀로 관리 (플랫폼 클래스 인덱스를 재사용)
+    private final BlockingQueue<StandardJavaFileManager> fileManagers;
+
+    public JavaSourceCompiler() {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("JDK의 javac를 찾을 수 없습니다. JRE가 아닌 JDK에서 실행해야 합니다.");
+        }
+
+        int poolSize = Runtime.getRuntime().availableProcessors();
+        this.fileManagers = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            fileManagers.add(compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8));
+        }
+    }
+
+    // 첫 요청이 javac 클래스 로딩과 JIT 비용을 떠안지 않도록 미리 몇 번 컴파일해 둔다
+    @PostConstruct
+    public void warmUp() {
+        String code = "import java.util.*;\n"
+                + "public class Main { public static void main(String[] args) { "
+                + "List<Integer> list = new ArrayList<>(); list.add(1); System.out.println(list); } }";
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            compile("WarmUp", code);
+        }
+    }
+
+    public CompileResult compile(String name, String code) {
+        StandardJavaFileManager standardFileManager;
+        try {
+            standardFileManager = fileManagers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompileResult.error("compilation failed");
+        }
+
+        try {
+            String fileName = name + ".java";
+            int[] insertionPoints = SourcePreprocessor.insertionPoints(code);
+            SourceFile source = new SourceFile(fileName, SourcePreprocessor.addSuppressWarnings(code, insertionPoints));
+            MemoryFileManager fileManager = new MemoryFileManager(standardFileManager);
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+            JavacTask task = (JavacTask) compiler.getTask(null, fileManager, diagnostics, OPTIONS, null, List.of(source));
+
+            // 소스 런처와 동일하게 파일의 첫 번째 top-level 클래스를 main 클래스로 사용
+            String mainClass = null;
+            for (CompilationUnitTree unit : task.parse()) {
+                mainClass = findMainClass(unit);
+            }
+            task.generate();
+
+            List<String> errors = formatErrors(fileName, code, insertionPoints, diagnostics.getDiagnostics());
+            if (!errors.isEmpty()) {
+                return CompileResult.failure(errors);
+            }
+            if (mainClass == null) {
+                return CompileResult.failure(List.of("error: no class declared in source file"));
+            }
+            return CompileResult.success(mainClass, fileManager.getClasses());
+        } catch (IOException | IllegalStateException e) {
+            e.printStackTrace();
+            return CompileResult.error("compilation failed");
+        } finally {
+            fileManagers.add(standardFileManager);
+        }
+    }
+
+    private String findMainClass(CompilationUnitTree unit) {
+        for (Tree type : unit.getTypeDecls()) {
+            if (type instanceof ClassTree) {
+                String simpleName = ((ClassTree) type).getSimpleName().toString();
+                if (unit.getPackageName() == null) {
+                    return simpleName;
+                }
+                return unit.getPackageName() + "." + simpleName;
+            }
+        }
+        return null;
+    }
+
+    // javac 출력 형식(파일:줄: error: 메시지 + 소스 줄 + ^)에 맞춰 에러 메시지 생성
+    // 소스 줄과 ^ 위치는 어노테이션을 붙이기 전의 소스(code) 기준 (줄 번호는 같다)
+    private List<String> formatErrors(String fileName, String code, int[] insertionPoints,
+                                      List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        List<String> errors = new ArrayList<>();
+        String[] sourceLines = null;
+        int errorCount = 0;
+
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            if (diagnostic.getKind() != Diagnostic.Kind.ERROR) {
+                continue;
+            }
+            errorCount++;
+
+            long lineNumber = diagnostic.getLineNumber();
+            String[] messageLines = diagnostic.getMessage(null).split("\\r?\\n");
+            if (lineNumber == Diagnostic.NOPOS) {
+                errors.add("error: " + messageLines[0]);
+            } else {
+                errors.add(fileName + ":" + lineNumber + ": error: " + messageLines[0]);
+            }
+            errors.addAll(Arrays.asList(messageLines).subList(1, messageLines.length));
+
+            if (lineNumber != Diagnostic.NOPOS && diagnostic.getPosition() != Diagnostic.NOPOS) {
+                if (sourceLines == null) {
+                    sourceLines = code.split("\\r?\\n", -1);
+                }
+                if (lineNumber <= sourceLines.length) {
+                    String sourceLine = sourceLines[(int) lineNumber - 1];
+                    long position = Math.min(SourcePreprocessor.originalPosition(insertionPoints, diagnostic.getPosition()), code.length());
+                    int lineStart = code.lastIndexOf('\n', (int) position - 1) + 1;
+                    errors.add(sourceLine);
+                    errors.add(" ".repeat(columnNumber(sourceLine, (int) position - lineStart) - 1) + "^");
+                }
+            }
+        }
+
+        if (errorCount > 0) {
+            errors.add(errorCount + (errorCount == 1 ? " error" : " errors"));
+        }
+        return errors;
+    }
+
+    // javac(Diagnostic.getColumnNumber)와 같이 탭은 8칸 단위로 넓혀 센다
+    private static int columnNumber(String line, int offset) {
+        int column = 0;
+        for (int i = 0; i < Math.min(offset, line.length()); i++) {
+            column = line.charAt(i) == '\t' ? (column / 8 * 8) + 8 : column + 1;
+        }
+        return column + 1;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (StandardJavaFileManager fileManager : fileManagers) {
+            fileManager.close();
+        }
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String code;
+
+        SourceFile(String fileName, String code) {
+            super(URI.create("string:///" + fileName), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+
+        // 소스 런처처럼 public 클래스 이름과 파일 이름이 달라도 허용
+        @Override
+        public boolean isNameCompatible(String simpleName, Kind kind) {
+            return kind == Kind.SOURCE;
+        }
+    }
+
+    private static class ClassFile extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        ClassFile(String className) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + ".class"), Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+
+        byte[] getBytes() {
+            return bytes.toByteArray();
+        }
+    }
+
+    private static class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, ClassFile> classFiles = new LinkedHashMap<>();
+
+        MemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            ClassFile classFile = new ClassFile(className);
+            classFiles.put(className, classFile);
+            return classFile;
+        }
+
+        // 공유 중인 StandardJavaFileManager가 닫히지 않도록 한다
+        @Override
+        public void close() {
+        }
+
+        Map<String, byte[]> getClasses() {
+            Map<String, byte[]> classes = new LinkedHashMap<>();
+            classFiles.forEach((className, classFile) -> classes.put(className, classFile.getBytes()));
+            return classes;
+        }
+    }
+
+}
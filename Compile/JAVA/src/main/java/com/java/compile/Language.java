@@ -0,0 +1,18 @@
+package com.java.compile;
+
+/**
+ * 실행 요청 언어. 값이 없거나 알 수 없는 언어는 기존 동작대로 Java로 처리한다.
+ */
+public enum Language {
+
+    JAVA,
+    PYTHON;
+
+    public static Language from(String name) {
+        if (name != null && name.trim().equalsIgnoreCase("python")) {
+            return PYTHON;
+        }
+        return JAVA;
+    }
+
+}
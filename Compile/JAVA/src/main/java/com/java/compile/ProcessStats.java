@@ -0,0 +1,106 @@
+package com.java.compile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * 자식 프로세스의 CPU 시간과 메모리(RSS) 조회. 리눅스 /proc 기준이며, 읽을 수 없으면 -1을 반환한다.
+ */
+public final class ProcessStats {
+
+    private ProcessStats() {
+    }
+
+    public static long cpuMillis(ProcessHandle handle) {
+        return handle.info().totalCpuDuration().map(Duration::toMillis).orElse(-1L);
+    }
+
+    public static long rssBytes(long pid) {
+        return readStatus(pid, "VmRSS:");
+    }
+
+    public static long peakRssBytes(long pid) {
+        return readStatus(pid, "VmHWM:");
+    }
+
+    // 최대 RSS(VmHWM)를 현재 RSS로 되돌린다 (실행마다 새로 재기 위해)
+    public static void resetPeakRss(long pid) {
+        try {
+            Files.write(Paths.get("/proc", Long.toString(pid), "clear_refs"), "5".getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException | UnsupportedOperationException e) {
+            // 지원하지 않는 환경에서는 프로세스 시작 이후의 최대값이 된다
+        }
+    }
+
+    // RLIMIT_NPROC가 세는 값: 이 서버와 같은 실제 사용자(real uid)의 태스크(스레드 포함) 수
+    public static long userTaskCount() {
+        String uid = readUid("self");
+        if (uid == null) {
+            return -1;
+        }
+        long count = 0;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(Paths.get("/proc"), "[0-9]*")) {
+            for (Path dir : dirs) {
+                String owner = null;
+                long threads = 0;
+                try {
+                    for (String line : Files.readAllLines(dir.resolve("status"), StandardCharsets.US_ASCII)) {
+                        if (line.startsWith("Uid:")) {
+                            owner = line.substring("Uid:".length()).trim().split("\\s+")[0];
+                        } else if (line.startsWith("Threads:")) {
+                            threads = Long.parseLong(line.substring("Threads:".length()).trim());
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // 읽는 사이에 끝난 프로세스
+                    continue;
+                }
+                if (uid.equals(owner)) {
+                    count += threads;
+                }
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return count;
+    }
+
+    public static boolean isRoot() {
+        return "0".equals(readUid("self"));
+    }
+
+    private static String readUid(String pid) {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", pid, "status"), StandardCharsets.US_ASCII)) {
+                if (line.startsWith("Uid:")) {
+                    return line.substring("Uid:".length()).trim().split("\\s+")[0];
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // /proc이 없는 환경
+        }
+        return null;
+    }
+
+    private static long readStatus(long pid, String field) {
+        Path status = Paths.get("/proc", Long.toString(pid), "status");
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.US_ASCII)) {
+                if (line.startsWith(field)) {
+                    // 예: "VmRSS:	   41236 kB"
+                    String value = line.substring(field.length()).trim();
+                    return Long.parseLong(value.substring(0, value.indexOf(' '))) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 프로세스가 이미 끝났거나 /proc이 없는 환경
+        }
+        return -1;
+    }
+
+}
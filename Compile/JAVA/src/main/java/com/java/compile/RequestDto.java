@@ -11,7 +11,10 @@ import lombok.ToString;
 @ToString
 public class RequestDto {
 
+    private Long userId;
     private String name;
+    // "Java"(기본값) 또는 "Python"
+    private String language;
     private String code;
     private String input;
 
@@ -0,0 +1,130 @@
+package com.java.compile;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실행 중인 프로세스의 벽시계 시간, CPU 시간, 메모리(RSS)를 주기적으로 확인해 한도를 넘으면 종료시킨다.
+ * cgroup을 쓸 수 없는 환경에서도 같은 한도가 적용되도록 /proc 값을 기준으로 한다.
+ * 하위 프로세스를 만드는 프로그램도 있으므로 측정과 종료는 프로세스 트리 전체를 대상으로 한다.
+ * 실행 명령에는 ulimit을 붙여 커널에서도 제한한다. 파일 크기(RLIMIT_FSIZE)는 항상, 프로세스 수와 주소 공간은
+ * cgroup(pids.max, memory.max)을 쓸 수 없을 때 대신 건다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResourceLimiter {
+
+    private final CgroupSandbox cgroupSandbox;
+
+    @Value("${compile.limits.cpu-time-millis}")
+    private long cpuTimeMillis;
+
+    @Value("${compile.limits.memory-bytes}")
+    private long memoryBytes;
+
+    @Value("${compile.limits.sample-interval-millis}")
+    private long sampleIntervalMillis;
+
+    @Value("${compile.limits.file-size-bytes}")
+    private long fileSizeBytes;
+
+    @Value("${compile.limits.max-processes}")
+    private int maxProcesses;
+
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "compile-limiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        if (!cgroupSandbox.isEnabled() && ProcessStats.isRoot()) {
+            // 커널은 root에 RLIMIT_NPROC를 적용하지 않는다
+            log.warn("no cgroup configured and running as root: the process count limit is not enforced");
+        }
+    }
+
+    /**
+     * 실행 직전에 호출한다. cgroup은 없으면 null.
+     */
+    public RunMonitor start(Process process, long timeoutMillis, CgroupSandbox.Cgroup cgroup) {
+        RunMonitor monitor = new RunMonitor(process.toHandle(), timeoutMillis, cpuTimeMillis, memoryBytes, cgroup);
+        monitor.start(sampler, sampleIntervalMillis);
+        return monitor;
+    }
+
+    /**
+     * 미리 띄워 두고 여러 번 실행하는 워커의 명령에 ulimit을 붙인다.
+     * CPU 시간은 실행마다 누적되고 JVM은 힙보다 훨씬 큰 주소 공간을 예약하므로 걸지 않는다 (RunMonitor가 제한한다).
+     */
+    public List<String> limitWorker(List<String> command) {
+        return withUlimits(command, commonLimits());
+    }
+
+    /**
+     * 실행 한 번만 하는 프로세스의 명령에 ulimit을 붙인다. CPU 시간도 커널에서 제한한다.
+     *
+     * @param limitAddressSpace 주소 공간(ulimit -v)도 제한할지 여부 (JVM은 false)
+     */
+    public List<String> limitRun(List<String> command, boolean limitAddressSpace) {
+        List<String> limits = commonLimits();
+        if (cpuTimeMillis > 0) {
+            // RunMonitor가 먼저 종료시키고, 샘플링 사이에 넘는 경우를 커널이 막는다
+            limits.add("ulimit -t " + (TimeUnit.MILLISECONDS.toSeconds(cpuTimeMillis) + 1));
+        }
+        if (limitAddressSpace && !cgroupSandbox.isEnabled() && memoryBytes > 0) {
+            limits.add("ulimit -v " + memoryBytes / 1024);
+        }
+        return withUlimits(command, limits);
+    }
+
+    private List<String> commonLimits() {
+        List<String> limits = new ArrayList<>();
+        if (fileSizeBytes > 0) {
+            // POSIX sh의 ulimit -f는 512바이트 단위
+            limits.add("ulimit -f " + (fileSizeBytes + 511) / 512);
+        }
+        if (!cgroupSandbox.isEnabled() && maxProcesses > 0) {
+            // RLIMIT_NPROC는 같은 사용자의 모든 태스크(스레드 포함)를 세므로 지금 있는 수에 한도를 더한다.
+            // bash는 -u, dash는 -p로 설정한다
+            long tasks = ProcessStats.userTaskCount();
+            if (tasks >= 0) {
+                long limit = tasks + maxProcesses;
+                limits.add("{ ulimit -u " + limit + " || ulimit -p " + limit + "; } 2>/dev/null");
+            }
+        }
+        return limits;
+    }
+
+    // exec로 바꿔 실행하므로 pid는 그대로다. 한도를 넘는 파일 쓰기는 EFBIG로 실패한다 (JVM과 Python은 SIGXFSZ를 무시한다)
+    private static List<String> withUlimits(List<String> command, List<String> limits) {
+        if (limits.isEmpty()) {
+            return command;
+        }
+        List<String> limited = new ArrayList<>();
+        limited.add("/bin/sh");
+        limited.add("-c");
+        limited.add(String.join(" && ", limits) + " && exec \"$@\"");
+        limited.add("sh");
+        limited.addAll(command);
+        return limited;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+    }
+
+}
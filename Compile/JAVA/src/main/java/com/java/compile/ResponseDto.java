@@ -13,5 +13,15 @@ public class ResponseDto {
     boolean state;
     List<String> output;
     String userId;
+    // 실행 시간 (ms)
+    long time;
+    // CPU 사용 시간 (ms), 실행하지 않았거나 측정할 수 없으면 -1
+    long cpuTime;
+    // 최대 메모리 사용량 RSS (KB), 실행하지 않았거나 측정할 수 없으면 -1
+    long memory;
+
+    public ResponseDto(boolean state, List<String> output, String userId) {
+        this(state, output, userId, 0, -1, -1);
+    }
 
 }
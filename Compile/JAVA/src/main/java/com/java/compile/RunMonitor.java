@@ -0,0 +1,162 @@
+package com.java.compile;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실행 한 번의 자원 사용량 측정과 한도 초과 시 강제 종료.
+ * 프로세스가 끝난 뒤에는 /proc 값을 읽을 수 없으므로 마지막으로 잰 값을 결과로 쓴다.
+ * 사용자 코드가 만든 하위 프로세스도 CPU 시간과 RSS에 합산하고, 한도를 넘거나 실행이 끝나면 함께 종료시킨다.
+ */
+public class RunMonitor {
+
+    // 측정하고 종료시킬 프로세스 (워커가 실행을 자식 프로세스에 맡기면 바뀐다)
+    private ProcessHandle process;
+    private final long timeoutMillis;
+    private final long cpuTimeMillis;
+    private final long memoryBytes;
+    private final CgroupSandbox.Cgroup cgroup;
+    // 실행 중에 본 하위 프로세스 (부모가 먼저 끝나 트리에서 떨어져도 종료시킬 수 있도록 기억해 둔다)
+    private final Set<ProcessHandle> descendants = new HashSet<>();
+
+    private long startNanos;
+    private long cpuStart;
+    private long oomKillsStart;
+    private ScheduledFuture<?> task;
+
+    private volatile boolean timedOut;
+    private volatile boolean memoryExceeded;
+    private volatile long cpuMillis = -1;
+    private volatile long peakRssBytes = -1;
+
+    RunMonitor(ProcessHandle process, long timeoutMillis, long cpuTimeMillis, long memoryBytes, CgroupSandbox.Cgroup cgroup) {
+        this.process = process;
+        this.timeoutMillis = timeoutMillis;
+        this.cpuTimeMillis = cpuTimeMillis;
+        this.memoryBytes = memoryBytes;
+        this.cgroup = cgroup;
+    }
+
+    void start(ScheduledExecutorService sampler, long intervalMillis) {
+        // 재사용하는 워커는 이전 실행의 최대 RSS와 누적 CPU 시간을 빼고 잰다
+        ProcessStats.resetPeakRss(process.pid());
+        cpuStart = Math.max(0, ProcessStats.cpuMillis(process));
+        oomKillsStart = cgroup == null ? 0 : cgroup.getOomKills();
+        startNanos = System.nanoTime();
+        task = sampler.scheduleAtFixedRate(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 실행 중인 프로세스가 바뀌었을 때 호출한다. 이후 측정과 한도 초과 시 종료는 새 프로세스를 대상으로 한다.
+     */
+    public synchronized void retarget(ProcessHandle child) {
+        process = child;
+        // 워커 기준으로 잰 값(자식 자신 포함)은 버리고 자식 기준으로 다시 잰다
+        descendants.clear();
+        peakRssBytes = -1;
+        ProcessStats.resetPeakRss(child.pid());
+        cpuStart = Math.max(0, ProcessStats.cpuMillis(child));
+    }
+
+    /**
+     * 프로세스가 끝난 뒤 워커가 알려 준 사용량을 반영한다 (짧은 실행은 샘플링으로 잡히지 않는다).
+     */
+    public synchronized void reportUsage(long cpuMillis, long peakRssBytes) {
+        this.cpuMillis = Math.max(this.cpuMillis, cpuMillis);
+        this.peakRssBytes = Math.max(this.peakRssBytes, peakRssBytes);
+    }
+
+    private synchronized void sample() {
+        if (!process.isAlive()) {
+            return;
+        }
+        measure();
+
+        if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) > timeoutMillis || cpuMillis > cpuTimeMillis) {
+            timedOut = true;
+            destroyTree();
+        } else if (treeRssBytes() > memoryBytes) {
+            memoryExceeded = true;
+            destroyTree();
+        }
+    }
+
+    private void measure() {
+        process.descendants().forEach(descendants::add);
+        long cpu = ProcessStats.cpuMillis(process);
+        if (cpu >= 0) {
+            // 이미 끝난 하위 프로세스의 CPU 시간은 /proc에서 읽을 수 없으므로 살아 있는 것만 더한다
+            for (ProcessHandle descendant : descendants) {
+                cpu += Math.max(0, ProcessStats.cpuMillis(descendant));
+            }
+            cpuMillis = cpu - cpuStart;
+        }
+        long peak = Math.max(ProcessStats.peakRssBytes(process.pid()), treeRssBytes());
+        if (peak >= 0) {
+            peakRssBytes = Math.max(peakRssBytes, peak);
+        }
+    }
+
+    private long treeRssBytes() {
+        long total = ProcessStats.rssBytes(process.pid());
+        if (total < 0) {
+            return -1;
+        }
+        for (ProcessHandle descendant : descendants) {
+            total += Math.max(0, ProcessStats.rssBytes(descendant.pid()));
+        }
+        return total;
+    }
+
+    private void destroyTree() {
+        process.destroyForcibly();
+        destroyDescendants();
+    }
+
+    private void destroyDescendants() {
+        process.descendants().forEach(descendants::add);
+        for (ProcessHandle descendant : descendants) {
+            descendant.destroyForcibly();
+        }
+    }
+
+    /**
+     * 실행이 끝나면(또는 프로세스를 종료했으면) 호출한다.
+     */
+    public synchronized void finish() {
+        task.cancel(false);
+        if (process.isAlive()) {
+            measure();
+        }
+        // 사용자 코드가 띄우고 남겨 둔 프로세스가 다음 실행까지 돌지 않게 한다
+        destroyDescendants();
+        // cgroup 메모리 한도에 걸려 커널이 종료한 경우
+        if (cgroup != null && cgroup.getOomKills() > oomKillsStart) {
+            memoryExceeded = true;
+        }
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public boolean isMemoryExceeded() {
+        return memoryExceeded;
+    }
+
+    public void markMemoryExceeded() {
+        memoryExceeded = true;
+    }
+
+    public long getCpuMillis() {
+        return cpuMillis;
+    }
+
+    public long getPeakRssBytes() {
+        return peakRssBytes;
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.java.compile;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 바이트코드 실행 결과
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class RunResult {
+
+    private final String stdout;
+    private final String stderr;
+    private final boolean timedOut;
+    private final boolean outputExceeded;
+    private final boolean memoryExceeded;
+    // 실행 시간 (ms)
+    private final long timeMillis;
+    // CPU 사용 시간 (ms), 측정할 수 없으면 -1
+    private final long cpuMillis;
+    // 최대 RSS (byte), 측정할 수 없으면 -1
+    private final long memoryBytes;
+
+    public static RunResult of(BoundedOutput output, boolean timedOut, long timeMillis, RunMonitor monitor) {
+        return new RunResult(output.getStdout(), output.getStderr(), timedOut, output.isTruncated(), monitor.isMemoryExceeded(),
+                timeMillis, monitor.getCpuMillis(), monitor.getPeakRssBytes());
+    }
+
+}
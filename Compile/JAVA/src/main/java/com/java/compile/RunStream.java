@@ -0,0 +1,116 @@
+package com.java.compile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 실행 중 출력을 NDJSON(한 줄에 JSON 하나)으로 응답에 흘려보낸다.
+ * 출력은 실행 스레드에서 쌓고, 응답 쓰기는 MVC 비동기 스레드에서 한다.
+ */
+public class RunStream implements StreamingResponseBody, BoundedOutput.Listener {
+
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<StreamFrameDto> frames = new LinkedBlockingQueue<>();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final Utf8Decoder stdoutDecoder = new Utf8Decoder();
+    private final Utf8Decoder stderrDecoder = new Utf8Decoder();
+    private volatile boolean emitted;
+
+    public RunStream(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onOutput(boolean error, byte[] bytes, int offset, int length) {
+        String data = (error ? stderrDecoder : stdoutDecoder).decode(bytes, offset, length);
+        if (!data.isEmpty()) {
+            emitted = true;
+            frames.add(StreamFrameDto.chunk(error ? "stderr" : "stdout", data));
+        }
+    }
+
+    // 출력 프레임을 하나라도 보냈는지 (보낸 뒤에는 다른 실행의 출력을 이어 붙이면 안 된다)
+    public boolean hasEmitted() {
+        return emitted;
+    }
+
+    // 완료 프레임은 한 번만 보낸다
+    public void finish(Verdict status, ResponseDto responseDto) {
+        if (finished.compareAndSet(false, true)) {
+            frames.add(StreamFrameDto.done(status, responseDto));
+        }
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        List<StreamFrameDto> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(frames.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // 쌓여 있는 출력은 스트림별로 합쳐서 한 번에 보낸다
+            frames.drainTo(batch);
+
+            StreamFrameDto pending = null;
+            for (StreamFrameDto frame : batch) {
+                if (pending != null && frame.getType().equals(StreamFrameDto.CHUNK) && frame.getStream().equals(pending.getStream())) {
+                    pending.setData(pending.getData() + frame.getData());
+                    continue;
+                }
+                if (pending != null) {
+                    write(outputStream, pending);
+                }
+                pending = frame;
+            }
+            write(outputStream, pending);
+            outputStream.flush();
+
+            if (pending.getType().equals(StreamFrameDto.DONE)) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(OutputStream outputStream, StreamFrameDto frame) throws IOException {
+        outputStream.write(objectMapper.writeValueAsBytes(frame));
+        outputStream.write('\n');
+    }
+
+    /**
+     * 프레임 경계에서 잘린 UTF-8 문자는 다음 출력과 이어서 디코딩한다.
+     */
+    private static class Utf8Decoder {
+
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer pending = ByteBuffer.allocate(0);
+
+        String decode(byte[] bytes, int offset, int length) {
+            ByteBuffer in = ByteBuffer.allocate(pending.remaining() + length);
+            in.put(pending).put(bytes, offset, length).flip();
+            CharBuffer out = CharBuffer.allocate(in.remaining());
+            decoder.decode(in, out, false);
+            pending = in;
+            return out.flip().toString();
+        }
+    }
+
+}
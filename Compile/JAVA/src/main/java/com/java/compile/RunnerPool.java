@@ -0,0 +1,364 @@
+package com.java.compile;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 미리 띄워 워밍업한 실행용 프로세스 풀 (Java는 {@link RunnerWorker}, Python은 python/runner_worker.py).
+ * 코드와 입력은 파이프로 전달하고, 정해진 횟수만큼 실행했거나 문제가 생긴 워커는 새 워커로 교체한다.
+ */
+@Slf4j
+public class RunnerPool implements Closeable {
+
+    // 요청을 보낸 뒤 워커를 잃었을 때 사용자에게 보여 줄 오류 (같은 프로그램을 다시 실행하지 않는다)
+    private static final String RUNNER_TERMINATED = "runner terminated unexpectedly";
+
+    // 실행마다 워커에 넘겨 프레임에 붙이게 하는 토큰 (사용자 코드가 fd 1에 직접 쓴 프레임을 걸러낸다)
+    private static final SecureRandom TOKENS = new SecureRandom();
+
+    private final String name;
+    private final int size;
+    private final int maxRunsPerWorker;
+    private final long acquireTimeoutMillis;
+    private final List<String> command;
+    private final boolean runDirectories;
+
+    private final BlockingQueue<Worker> idle;
+    private final ExecutorService spawner;
+    private final WorkspaceManager workspaceManager;
+    private final ResourceLimiter resourceLimiter;
+    private final CgroupSandbox cgroupSandbox;
+    private final Workspace workerFiles;
+    private volatile boolean closed;
+
+    /**
+     * @param workerFiles 워커 실행에 필요한 파일(클래스, 스크립트)을 꺼내 둔 디렉터리, 풀을 닫을 때 함께 지운다
+     * @param command     워커 실행 명령
+     * @param runDirectories 실행마다 새 작업 디렉터리를 만들어 요청에 넣어 보낼지 여부 (워커가 그 디렉터리로 옮겨 실행한다).
+     *                       JVM은 실행 중에 작업 디렉터리를 바꿀 수 없으므로 Java 워커는 false이며, 어느 경우든 실행이 끝나면 워커 디렉터리를 비운다
+     */
+    public RunnerPool(String name, WorkspaceManager workspaceManager, ResourceLimiter resourceLimiter, CgroupSandbox cgroupSandbox,
+                      int size, int maxRunsPerWorker, long acquireTimeoutMillis,
+                      Workspace workerFiles, List<String> command, boolean runDirectories) {
+        this.name = name;
+        this.workspaceManager = workspaceManager;
+        this.resourceLimiter = resourceLimiter;
+        this.cgroupSandbox = cgroupSandbox;
+        this.size = size;
+        this.maxRunsPerWorker = maxRunsPerWorker;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idle = new LinkedBlockingQueue<>();
+        this.spawner = Executors.newSingleThreadExecutor(daemonThreads(name + "-spawner"));
+        this.workerFiles = workerFiles;
+        this.command = List.copyOf(command);
+        this.runDirectories = runDirectories;
+
+        for (int i = 0; i < size; i++) {
+            spawner.execute(this::spawn);
+        }
+    }
+
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    /**
+     * 워커에서 프로그램을 실행한다. 사용할 수 있는 워커가 없거나 요청을 보내지 못했으면 null을 반환한다.
+     * 요청을 보낸 뒤 워커가 종료되거나 프로토콜이 깨지면 런타임 오류 결과를 반환한다.
+     *
+     * @param files 워커에 넘길 파일 (Java는 클래스 이름과 바이트코드, Python은 파일 이름과 소스)
+     * @param main  실행할 main 클래스 또는 파일 이름
+     */
+    public RunResult run(Map<String, byte[]> files, String main, String input, long timeoutMillis, BoundedOutput output) throws InterruptedException {
+        return runAll(files, main, List.of(input), timeoutMillis, Long.MAX_VALUE, () -> output).get(0);
+    }
+
+    /**
+     * 같은 프로그램을 입력마다 차례로 실행한다. 워커 하나를 빌려 계속 사용하고, 실행 중 워커를 잃으면 새 워커를 빌린다.
+     * 워커를 빌리지 못했거나 요청을 보내지 못한 입력의 결과는 null이며, deadlineNanos({@link System#nanoTime()} 기준)가 지나면 남은 입력은 실행하지 않는다.
+     */
+    public List<RunResult> runAll(Map<String, byte[]> files, String main, List<String> inputs, long timeoutMillis,
+                                  long deadlineNanos, Supplier<BoundedOutput> outputs) throws InterruptedException {
+        List<RunResult> results = new ArrayList<>();
+        Worker worker = null;
+        boolean available = isEnabled();
+        try {
+            for (String input : inputs) {
+                if (results.size() > 0 && System.nanoTime() - deadlineNanos > 0) {
+                    break;
+                }
+                if (worker == null && available) {
+                    worker = idle.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+                    // 한 번 빌리지 못하면 남은 입력마다 다시 기다리지 않는다
+                    available = worker != null;
+                }
+                if (worker == null) {
+                    results.add(null);
+                    continue;
+                }
+
+                try {
+                    results.add(worker.run(files, main, input, timeoutMillis, outputs.get()));
+                } catch (IOException e) {
+                    // 요청을 보내기 전에 실패한 경우만 여기로 온다 (프로그램은 실행되지 않음)
+                    log.warn("{} worker failed before the run started", name, e);
+                    results.add(null);
+                }
+                if (!worker.isReusable()) {
+                    release(worker);
+                    worker = null;
+                }
+            }
+        } finally {
+            if (worker != null) {
+                release(worker);
+            }
+        }
+        return results;
+    }
+
+    private void release(Worker worker) {
+        if (worker.isReusable()) {
+            idle.add(worker);
+        } else {
+            worker.destroy();
+            if (!closed) {
+                spawner.execute(this::spawn);
+            }
+        }
+    }
+
+    private void spawn() {
+        long retryMillis = 1000;
+        while (!closed) {
+            Workspace workspace = null;
+            CgroupSandbox.Cgroup cgroup = null;
+            Worker worker = null;
+            try {
+                // 워커 전용 디렉터리에서 띄우고, 사용자 코드가 여기에 만든 파일은 실행이 끝날 때마다 지운다
+                workspace = workspaceManager.createWorker();
+                cgroup = cgroupSandbox.create("worker-");
+                worker = new Worker(new ProcessBuilder(resourceLimiter.limitWorker(command))
+                        .directory(workspace.getDir().toFile())
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start(), workspace, cgroup);
+                if (cgroup != null) {
+                    // 사용자 코드를 받기 전에 옮기므로 모든 실행이 cgroup 한도 안에서 돈다
+                    cgroup.add(worker.process.pid());
+                }
+                worker.awaitReady();
+                idle.add(worker);
+                return;
+            } catch (IOException e) {
+                if (worker != null) {
+                    worker.destroy();
+                } else {
+                    if (workspace != null) {
+                        workspace.close();
+                    }
+                    if (cgroup != null) {
+                        cgroup.close();
+                    }
+                }
+                log.warn("failed to start {} worker, retrying in {} ms", name, retryMillis, e);
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                // 실행 파일이 없는 등 계속 실패하는 경우 재시도 간격을 늘린다
+                retryMillis = Math.min(retryMillis * 2, 30000);
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        spawner.shutdownNow();
+        Worker worker;
+        while ((worker = idle.poll()) != null) {
+            worker.destroy();
+        }
+        workerFiles.close();
+    }
+
+    private class Worker {
+
+        private final Process process;
+        private final Workspace workspace;
+        private final CgroupSandbox.Cgroup cgroup;
+        private final DataOutputStream requests;
+        private final DataInputStream frames;
+        private int runs;
+        private boolean faulted;
+
+        Worker(Process process, Workspace workspace, CgroupSandbox.Cgroup cgroup) {
+            this.process = process;
+            this.workspace = workspace;
+            this.cgroup = cgroup;
+            this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.frames = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        void awaitReady() throws IOException {
+            byte type = frames.readByte();
+            readPayload(RunnerWorker.NO_TOKEN);
+            if (type != RunnerWorker.FRAME_READY) {
+                throw new IOException("unexpected frame from runner worker: " + type);
+            }
+        }
+
+        // 토큰이 다르거나 길이가 맞지 않으면 사용자 코드가 쓴 바이트가 섞인 것이므로 더 읽지 않는다
+        private byte[] readPayload(long token) throws IOException {
+            long frameToken = frames.readLong();
+            int length = frames.readInt();
+            if (frameToken != token || length < 0 || length > RunnerWorker.MAX_FRAME_BYTES) {
+                throw new IOException("corrupted frame from runner worker");
+            }
+            byte[] bytes = new byte[length];
+            frames.readFully(bytes);
+            return bytes;
+        }
+
+        // 같은 워커가 여러 사용자의 코드를 실행하므로 이전 실행이 만든 파일을 다음 실행에서 볼 수 없게 한다
+        RunResult run(Map<String, byte[]> files, String main, String input, long timeoutMillis, BoundedOutput output) throws IOException {
+            try (Workspace runDir = runDirectories ? workspaceManager.createRun() : null) {
+                return execute(runDir, files, main, input, timeoutMillis, output);
+            } finally {
+                workspace.clear();
+            }
+        }
+
+        private RunResult execute(Workspace runDir, Map<String, byte[]> files, String main, String input, long timeoutMillis,
+                                  BoundedOutput output) throws IOException {
+            runs++;
+            // DONE 프레임을 제대로 받기 전까지는 교체 대상이다 (프로토콜 오류, 강제 종료 등)
+            faulted = true;
+
+            // 여기서 실패하면 프로그램이 시작되지 않았으므로 호출한 쪽이 새 프로세스에서 실행해도 된다
+            long token = TOKENS.nextLong();
+            requests.writeLong(token);
+            requests.writeInt(files.size());
+            for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+                requests.writeUTF(entry.getKey());
+                requests.writeInt(entry.getValue().length);
+                requests.write(entry.getValue());
+            }
+            requests.writeUTF(main);
+            if (runDir != null) {
+                requests.writeUTF(runDir.getDir().toString());
+            }
+            byte[] inputBytes = input.getBytes(StandardCharsets.UTF_8);
+            requests.writeInt(inputBytes.length);
+            requests.write(inputBytes);
+            requests.flush();
+            long startNanos = System.nanoTime();
+
+            // 시간, CPU, 메모리 한도를 넘으면 워커를 강제 종료해 읽기를 끝낸다
+            RunMonitor monitor = resourceLimiter.start(process, timeoutMillis, cgroup);
+
+            // 실행을 fork한 자식에 맡기는 워커는 자식만 종료시키고 워커는 계속 쓴다
+            ProcessHandle child = null;
+            long timeMillis = -1;
+            IOException failure = null;
+            try {
+                while (true) {
+                    byte type = frames.readByte();
+                    byte[] bytes = readPayload(token);
+
+                    if (type == RunnerWorker.FRAME_STDOUT || type == RunnerWorker.FRAME_STDERR) {
+                        if (!output.append(type == RunnerWorker.FRAME_STDERR, bytes, 0, bytes.length)) {
+                            // 출력 한도 초과: 제한 시간까지 기다리지 않고 바로 종료
+                            if (child != null) {
+                                child.destroyForcibly();
+                                continue;
+                            }
+                            process.destroyForcibly();
+                            break;
+                        }
+                    } else if (type == RunnerWorker.FRAME_STARTED) {
+                        int pid = new DataInputStream(new ByteArrayInputStream(bytes)).readInt();
+                        child = ProcessHandle.of(pid).orElse(null);
+                        if (child != null) {
+                            monitor.retarget(child);
+                        }
+                    } else if (type == RunnerWorker.FRAME_DONE) {
+                        DataInputStream done = new DataInputStream(new ByteArrayInputStream(bytes));
+                        int status = done.readInt();
+                        timeMillis = TimeUnit.NANOSECONDS.toMillis(done.readLong());
+                        if (done.available() >= 16) {
+                            // 자식 프로세스의 CPU 시간과 최대 RSS
+                            monitor.reportUsage(TimeUnit.NANOSECONDS.toMillis(done.readLong()), done.readLong());
+                        }
+                        if (status == RunnerWorker.STATUS_OUT_OF_MEMORY) {
+                            monitor.markMemoryExceeded();
+                        }
+                        faulted = status == RunnerWorker.STATUS_DIRTY || (status == RunnerWorker.STATUS_OUT_OF_MEMORY && child == null);
+                        break;
+                    } else if (type == RunnerWorker.FRAME_EXIT) {
+                        // System.exit() 호출로 워커가 종료됨
+                        break;
+                    } else {
+                        throw new IOException("unexpected frame from runner worker: " + type);
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                monitor.finish();
+            }
+            // 한도를 넘겨 종료시킨 경우가 아니면 워커 오류. 프로그램은 이미 실행되었으므로 다시 실행하지 않고 런타임 오류로 끝낸다
+            if (failure != null && !monitor.isTimedOut() && !monitor.isMemoryExceeded()) {
+                log.warn("{} worker terminated during a run", name, failure);
+                byte[] message = (System.lineSeparator() + RUNNER_TERMINATED + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+                output.append(true, message, 0, message.length);
+            }
+            if ((monitor.isTimedOut() || monitor.isMemoryExceeded()) && child == null) {
+                faulted = true;
+            }
+            if (timeMillis < 0) {
+                // DONE 프레임을 받지 못한 경우(시간 초과, System.exit() 등)는 서버에서 잰 시간을 사용
+                timeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            }
+
+            return RunResult.of(output, monitor.isTimedOut(), timeMillis, monitor);
+        }
+
+        boolean isReusable() {
+            return !faulted && runs < maxRunsPerWorker && process.isAlive();
+        }
+
+        void destroy() {
+            // 사용자 코드가 띄운 프로세스가 워커보다 오래 남지 않게 한다
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+            try {
+                process.waitFor(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            workspace.close();
+            if (cgroup != null) {
+                cgroup.close();
+            }
+        }
+    }
+
+}
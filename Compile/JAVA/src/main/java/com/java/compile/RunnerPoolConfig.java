@@ -0,0 +1,104 @@
+package com.java.compile;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class RunnerPoolConfig {
+
+    // 워커가 실행할 Python 스크립트 (classpath 기준)
+    static final String PYTHON_WORKER = "python/runner_worker.py";
+
+    @Value("${compile.runner.pool-size}")
+    private int poolSize;
+
+    @Value("${compile.runner.max-runs-per-worker}")
+    private int maxRunsPerWorker;
+
+    @Value("${compile.runner.acquire-timeout-millis}")
+    private long acquireTimeoutMillis;
+
+    @Value("${compile.runner.jvm-options}")
+    private List<String> jvmOptions;
+
+    @Value("${compile.runner.warm-up-classes}")
+    private List<String> warmUpClasses;
+
+    @Value("${compile.python.pool-size}")
+    private int pythonPoolSize;
+
+    @Value("${compile.python.max-runs-per-worker}")
+    private int pythonMaxRunsPerWorker;
+
+    @Value("${compile.python.command}")
+    private String pythonCommand;
+
+    @Value("${compile.python.warm-up-modules}")
+    private List<String> pythonWarmUpModules;
+
+    @Bean(destroyMethod = "close")
+    public RunnerPool runnerPool(WorkspaceManager workspaceManager, ResourceLimiter resourceLimiter, CgroupSandbox cgroupSandbox) throws IOException {
+        Workspace classPath = extractWorkerClasses(workspaceManager);
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + "/bin/java");
+        command.addAll(jvmOptions);
+        command.add("-Dfile.encoding=UTF-8");
+        command.add("-cp");
+        command.add(classPath.getDir().toString());
+        command.add(RunnerWorker.class.getName());
+        command.addAll(warmUpClasses);
+
+        return new RunnerPool("java-runner", workspaceManager, resourceLimiter, cgroupSandbox,
+                poolSize, maxRunsPerWorker, acquireTimeoutMillis, classPath, command, false);
+    }
+
+    @Bean(destroyMethod = "close")
+    public RunnerPool pythonRunnerPool(WorkspaceManager workspaceManager, ResourceLimiter resourceLimiter, CgroupSandbox cgroupSandbox) throws IOException {
+        Workspace script = workspaceManager.createClassPath();
+        try (InputStream in = RunnerPoolConfig.class.getClassLoader().getResourceAsStream(PYTHON_WORKER)) {
+            if (in == null) {
+                script.close();
+                throw new FileNotFoundException(PYTHON_WORKER);
+            }
+            script.write("runner_worker.py", in.readAllBytes());
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(pythonCommand);
+        // 사용자 site-packages, 환경 변수 설정을 무시하고 입출력은 UTF-8로 고정
+        command.add("-s");
+        command.add("-E");
+        command.add("-X");
+        command.add("utf8");
+        command.add(script.getDir().resolve("runner_worker.py").toString());
+        command.addAll(pythonWarmUpModules);
+
+        return new RunnerPool("python-runner", workspaceManager, resourceLimiter, cgroupSandbox,
+                pythonPoolSize, pythonMaxRunsPerWorker, acquireTimeoutMillis, script, command, true);
+    }
+
+    // 자식 JVM 클래스패스로 쓸 수 있도록 RunnerWorker 클래스 파일을 디렉터리로 꺼낸다 (fat jar 대응)
+    private static Workspace extractWorkerClasses(WorkspaceManager workspaceManager) throws IOException {
+        Workspace workspace = workspaceManager.createClassPath();
+        for (Class<?> clazz : RunnerWorker.class.getNestMembers()) {
+            String resource = clazz.getName().replace('.', '/') + ".class";
+            try (InputStream in = RunnerWorker.class.getClassLoader().getResourceAsStream(resource)) {
+                if (in == null) {
+                    workspace.close();
+                    throw new FileNotFoundException(resource);
+                }
+                workspace.write(resource, in.readAllBytes());
+            }
+        }
+        return workspace;
+    }
+
+}
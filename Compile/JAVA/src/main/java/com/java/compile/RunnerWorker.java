@@ -0,0 +1,319 @@
+package com.java.compile;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 미리 띄워 둔 실행용 JVM의 main 클래스.
+ * 표준 입력으로 바이트코드와 입력 데이터를 받아 실행하고, 출력은 프레임 단위로 표준 출력에 쓴다.
+ * 사용자 코드도 fd 1에 직접 쓸 수 있으므로 프레임마다 서버가 실행별로 정해 보낸 토큰을 붙이고, 서버는 토큰이 다른 프레임을 받으면 워커를 교체한다.
+ * 자식 JVM의 클래스패스에는 이 클래스만 올라가므로 JDK 외의 의존성을 사용하면 안 된다.
+ */
+public class RunnerWorker {
+
+    // 워커 -> 서버 프레임 종류
+    static final byte FRAME_READY = 0;
+    static final byte FRAME_STDOUT = 1;
+    static final byte FRAME_STDERR = 2;
+    static final byte FRAME_DONE = 3;
+    static final byte FRAME_EXIT = 4;
+    // 실행을 fork한 자식 프로세스에 맡기는 워커(python/runner_worker.py)가 자식 pid를 알린다
+    static final byte FRAME_STARTED = 5;
+
+    // DONE 프레임 상태값
+    static final int STATUS_OK = 0;
+    static final int STATUS_EXCEPTION = 1;
+    static final int STATUS_DIRTY = 2;
+    // 힙 부족으로 끝남 (이후 워커 상태를 믿을 수 없으므로 교체)
+    static final int STATUS_OUT_OF_MEMORY = 3;
+
+    // 프레임 하나의 최대 데이터 크기 (더 큰 출력은 나눠 보낸다)
+    static final int MAX_FRAME_BYTES = 8192;
+    // 실행 요청을 받기 전에 보내는 프레임(READY)의 토큰
+    static final long NO_TOKEN = 0;
+
+    private static DataOutputStream frames;
+    // 실행 중 출력을 모아 두는 최대 시간 (실시간 출력용)
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private static volatile PrintStream userOut;
+    private static volatile PrintStream userErr;
+
+    public static void main(String[] args) throws Exception {
+        DataInputStream requests = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+        frames = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+
+        for (String className : args) {
+            warmUp(className);
+        }
+        warmUpInput();
+
+        // 토큰은 사용자 코드가 리플렉션으로 꺼낼 수 있는 static 필드에 두지 않는다
+        AtomicLong runToken = new AtomicLong(NO_TOKEN);
+
+        // 사용자 코드가 System.exit()을 호출하면 남은 출력을 내보내고 종료를 알린다
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            flushUserStreams();
+            writeFrame(FRAME_EXIT, runToken.get(), new byte[0]);
+        }));
+
+        // 출력이 버퍼 크기만큼 쌓이지 않아도 주기적으로 내보낸다
+        Thread flusher = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(FLUSH_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                flushUserStreams();
+            }
+        }, "runner-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        writeFrame(FRAME_READY, NO_TOKEN, new byte[0]);
+
+        Set<Thread> baseline = new HashSet<>(Thread.getAllStackTraces().keySet());
+        while (true) {
+            Map<String, byte[]> classes = new HashMap<>();
+            long token;
+            try {
+                token = requests.readLong();
+            } catch (EOFException e) {
+                return;
+            }
+            runToken.set(token);
+            int classCount = requests.readInt();
+            for (int i = 0; i < classCount; i++) {
+                String className = requests.readUTF();
+                byte[] bytes = new byte[requests.readInt()];
+                requests.readFully(bytes);
+                classes.put(className, bytes);
+            }
+            String mainClass = requests.readUTF();
+            byte[] input = new byte[requests.readInt()];
+            requests.readFully(input);
+
+            long startNanos = System.nanoTime();
+            int status = run(classes, mainClass, input, token);
+            long elapsedNanos = System.nanoTime() - startNanos;
+            // 예외로 끝났어도 사용자 코드가 만든 스레드(데몬 포함)가 남아 있으면 다음 실행에 영향을 주므로 워커를 교체한다
+            if (status != STATUS_OUT_OF_MEMORY && hasLeftoverThreads(baseline)) {
+                status = STATUS_DIRTY;
+            }
+
+            ByteArrayOutputStream done = new ByteArrayOutputStream();
+            DataOutputStream doneOut = new DataOutputStream(done);
+            doneOut.writeInt(status);
+            doneOut.writeLong(elapsedNanos);
+            writeFrame(FRAME_DONE, token, done.toByteArray());
+        }
+    }
+
+    private static void warmUp(String className) {
+        try {
+            Class.forName(className, true, ClassLoader.getSystemClassLoader());
+        } catch (Throwable ignored) {
+            // 존재하지 않는 클래스는 무시
+        }
+    }
+
+    // 입력 처리 코드(Scanner 정규식, StringTokenizer 등)는 클래스 로딩만으로는 느리므로 미리 몇 번 돌려 둔다
+    private static void warmUpInput() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            input.append(i).append(i % 10 == 9 ? '\n' : ' ');
+        }
+        byte[] bytes = input.toString().getBytes(StandardCharsets.UTF_8);
+
+        for (int round = 0; round < 20; round++) {
+            Scanner scanner = new Scanner(new ByteArrayInputStream(bytes));
+            while (scanner.hasNextInt()) {
+                scanner.nextInt();
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes)))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    StringTokenizer tokenizer = new StringTokenizer(line);
+                    while (tokenizer.hasMoreTokens()) {
+                        Integer.parseInt(tokenizer.nextToken());
+                    }
+                }
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static int run(Map<String, byte[]> classes, String mainClass, byte[] input, long token) {
+        System.setIn(new ByteArrayInputStream(input));
+        userOut = new PrintStream(new FrameOutputStream(FRAME_STDOUT, token), false, StandardCharsets.UTF_8);
+        userErr = new PrintStream(new FrameOutputStream(FRAME_STDERR, token), false, StandardCharsets.UTF_8);
+        System.setOut(userOut);
+        System.setErr(userErr);
+
+        int[] status = {STATUS_OK};
+        Thread main = new Thread(() -> {
+            try {
+                Class<?> clazz = new UserClassLoader(classes).loadClass(mainClass);
+                Method method = clazz.getMethod("main", String[].class);
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    throw new NoSuchMethodException();
+                }
+                method.setAccessible(true);
+                method.invoke(null, (Object) new String[0]);
+            } catch (InvocationTargetException e) {
+                status[0] = e.getCause() instanceof OutOfMemoryError ? STATUS_OUT_OF_MEMORY : STATUS_EXCEPTION;
+                userErr.print("Exception in thread \"main\" ");
+                printUserStackTrace(e.getCause());
+            } catch (NoSuchMethodException e) {
+                status[0] = STATUS_EXCEPTION;
+                userErr.println("error: can't find main(String[]) method in class: " + mainClass);
+            } catch (Throwable e) {
+                status[0] = e instanceof OutOfMemoryError ? STATUS_OUT_OF_MEMORY : STATUS_EXCEPTION;
+                userErr.print("Exception in thread \"main\" ");
+                e.printStackTrace(userErr);
+            }
+        }, "main");
+        main.start();
+
+        try {
+            main.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flushUserStreams();
+        return status[0];
+    }
+
+    // 워커 내부 호출 스택(리플렉션 등)은 사용자에게 보여주지 않는다
+    private static void printUserStackTrace(Throwable throwable) {
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        int depth = stackTrace.length;
+        for (int i = 0; i < stackTrace.length; i++) {
+            String className = stackTrace[i].getClassName();
+            if (className.startsWith("jdk.internal.reflect.") || className.startsWith("java.lang.reflect.")) {
+                depth = i;
+                break;
+            }
+        }
+        throwable.setStackTrace(Arrays.copyOf(stackTrace, depth));
+        throwable.printStackTrace(userErr);
+    }
+
+    // 데몬 스레드나 JDK가 대신 만든 스레드(병렬 스트림의 ForkJoinPool 등)도 사용자 작업을 이어서 돌릴 수 있으므로 구분하지 않는다
+    private static boolean hasLeftoverThreads(Set<Thread> baseline) {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && !baseline.contains(thread)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void flushUserStreams() {
+        PrintStream out = userOut;
+        PrintStream err = userErr;
+        if (out != null) {
+            out.flush();
+        }
+        if (err != null) {
+            err.flush();
+        }
+    }
+
+    static void writeFrame(byte type, long token, byte[] bytes) {
+        writeFrame(type, token, bytes, 0, bytes.length);
+    }
+
+    static void writeFrame(byte type, long token, byte[] bytes, int offset, int length) {
+        synchronized (RunnerWorker.class) {
+            try {
+                frames.writeByte(type);
+                frames.writeLong(token);
+                frames.writeInt(length);
+                frames.write(bytes, offset, length);
+                frames.flush();
+            } catch (IOException e) {
+                // 서버와의 연결이 끊긴 경우 더 이상 할 수 있는 일이 없다
+                Runtime.getRuntime().halt(1);
+            }
+        }
+    }
+
+    /**
+     * 사용자 출력을 모아서 일정 크기마다 프레임으로 내보낸다.
+     */
+    private static class FrameOutputStream extends OutputStream {
+
+        private final byte type;
+        private final long token;
+        private final byte[] buffer = new byte[MAX_FRAME_BYTES];
+        private int count;
+
+        FrameOutputStream(byte type, long token) {
+            this.type = type;
+            this.token = token;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            if (count == buffer.length) {
+                flush();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (len >= buffer.length) {
+                flush();
+                for (int end = off + len; off < end; off += MAX_FRAME_BYTES) {
+                    writeFrame(type, token, b, off, Math.min(MAX_FRAME_BYTES, end - off));
+                }
+                return;
+            }
+            if (len > buffer.length - count) {
+                flush();
+            }
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+
+        @Override
+        public synchronized void flush() {
+            if (count > 0) {
+                writeFrame(type, token, buffer, 0, count);
+                count = 0;
+            }
+        }
+    }
+
+    /**
+     * 실행마다 새로 만들어 static 상태가 다음 실행으로 넘어가지 않게 한다.
+     */
+    private static class UserClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classes;
+
+        UserClassLoader(Map<String, byte[]> classes) {
+            super(ClassLoader.getPlatformClassLoader());
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+}
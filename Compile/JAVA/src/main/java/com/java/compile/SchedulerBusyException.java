@@ -0,0 +1,14 @@
+package com.java.compile;
+
+/**
+ * 실행 대기열이 가득 찼을 때 발생
+ */
+public class SchedulerBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SchedulerBusyException() {
+        super("execution queue is full");
+    }
+
+}
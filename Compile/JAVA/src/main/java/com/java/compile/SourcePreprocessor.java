@@ -0,0 +1,241 @@
+package com.java.compile;
+
+import java.util.Arrays;
+
+/**
+ * 컴파일 전에 최상위 타입 선언마다 @SuppressWarnings("unchecked")를 붙인다.
+ * 소스를 한 번 훑으며 주석, 문자열, 문자 리터럴, 텍스트 블록은 건너뛰고 괄호 깊이가 0인 선언만 찾는다.
+ * 어노테이션은 선언과 같은 줄에 끼워 넣으므로 컴파일 오류와 스택 트레이스의 줄 번호가 사용자 코드와 같다.
+ * 오류 메시지에 소스 줄을 보여줄 때는 insertionPoints와 originalPosition으로 사용자 코드의 위치를 찾는다.
+ */
+public final class SourcePreprocessor {
+
+    static final String ANNOTATION = "@SuppressWarnings(\"unchecked\") ";
+
+    private SourcePreprocessor() {
+    }
+
+    /**
+     * 붙일 곳이 없으면(이미 붙어 있거나 선언을 찾지 못하면) 받은 문자열을 그대로 반환한다.
+     */
+    public static String addSuppressWarnings(String code) {
+        return addSuppressWarnings(code, insertionPoints(code));
+    }
+
+    static String addSuppressWarnings(String code, int[] insertionPoints) {
+        if (insertionPoints.length == 0) {
+            return code;
+        }
+        StringBuilder annotated = new StringBuilder(code.length() + insertionPoints.length * ANNOTATION.length());
+        int copied = 0;
+        for (int insertAt : insertionPoints) {
+            annotated.append(code, copied, insertAt).append(ANNOTATION);
+            copied = insertAt;
+        }
+        return annotated.append(code, copied, code.length()).toString();
+    }
+
+    /**
+     * 어노테이션을 붙인 소스의 위치(문자 단위)를 원래 소스의 위치로 바꾼다. 붙인 어노테이션 안의 위치는 선언 시작 위치가 된다.
+     */
+    static long originalPosition(int[] insertionPoints, long position) {
+        long shift = 0;
+        for (int insertAt : insertionPoints) {
+            long annotatedStart = insertAt + shift;
+            if (position < annotatedStart) {
+                break;
+            }
+            if (position < annotatedStart + ANNOTATION.length()) {
+                return insertAt;
+            }
+            shift += ANNOTATION.length();
+        }
+        return position - shift;
+    }
+
+    // 어노테이션을 붙일 원래 소스의 위치 (오름차순)
+    static int[] insertionPoints(String code) {
+        int length = code.length();
+        int[] insertAt = null;
+        int insertCount = 0;
+
+        int depth = 0;
+        // 현재 최상위 선언(수식어, 어노테이션 포함)이 시작된 위치
+        int declarationStart = -1;
+        boolean suppressed = false;
+        char previous = 0;
+
+        int i = 0;
+        while (i < length) {
+            char c = code.charAt(i);
+
+            if (c == '/' && i + 1 < length && code.charAt(i + 1) == '/') {
+                i = skipLineComment(code, i + 2);
+                continue;
+            }
+            if (c == '/' && i + 1 < length && code.charAt(i + 1) == '*') {
+                i = skipBlockComment(code, i + 2);
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            if (depth == 0 && declarationStart < 0 && (c == '@' || Character.isJavaIdentifierStart(c))) {
+                declarationStart = i;
+                suppressed = false;
+            }
+
+            if (c == '"') {
+                i = skipString(code, i);
+            } else if (c == '\'') {
+                i = skipCharLiteral(code, i + 1);
+            } else if (c == '{' || c == '(' || c == '[') {
+                depth++;
+                i++;
+            } else if (c == '}' || c == ')' || c == ']') {
+                depth = Math.max(0, depth - 1);
+                i++;
+                if (depth == 0 && c == '}') {
+                    // 최상위 선언 본문이 끝남
+                    declarationStart = -1;
+                }
+            } else if (c == ';') {
+                if (depth == 0) {
+                    // package, import 문 끝
+                    declarationStart = -1;
+                }
+                i++;
+            } else if (c == '@' && depth == 0) {
+                int nameStart = skipWhitespace(code, i + 1);
+                int nameEnd = skipQualifiedName(code, nameStart);
+                if (endsWithSegment(code, nameStart, nameEnd, "SuppressWarnings")) {
+                    suppressed = true;
+                } else if (isWord(code, nameStart, nameEnd, "interface")) {
+                    insertAt = addDeclaration(insertAt, insertCount, declarationStart, suppressed);
+                    insertCount += suppressed ? 0 : 1;
+                    suppressed = true;
+                }
+                i = nameEnd;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(code.charAt(end))) {
+                    end++;
+                }
+                if (depth == 0 && previous != '.' && isTypeKeyword(code, i, end)) {
+                    insertAt = addDeclaration(insertAt, insertCount, declarationStart, suppressed);
+                    insertCount += suppressed ? 0 : 1;
+                    // 같은 선언에 두 번 붙이지 않도록 본문이 끝날 때까지 막아 둔다
+                    suppressed = true;
+                }
+                i = end;
+            } else {
+                i++;
+            }
+            previous = c;
+        }
+
+        return insertCount == 0 ? new int[0] : Arrays.copyOf(insertAt, insertCount);
+    }
+
+    private static int[] addDeclaration(int[] insertAt, int insertCount, int declarationStart, boolean suppressed) {
+        if (suppressed || declarationStart < 0) {
+            return insertAt;
+        }
+        if (insertAt == null) {
+            insertAt = new int[4];
+        } else if (insertCount == insertAt.length) {
+            insertAt = Arrays.copyOf(insertAt, insertCount * 2);
+        }
+        insertAt[insertCount] = declarationStart;
+        return insertAt;
+    }
+
+    private static boolean isTypeKeyword(String code, int start, int end) {
+        return isWord(code, start, end, "class") || isWord(code, start, end, "interface")
+                || isWord(code, start, end, "enum") || isWord(code, start, end, "record");
+    }
+
+    private static boolean isWord(String code, int start, int end, String word) {
+        return end - start == word.length() && code.startsWith(word, start);
+    }
+
+    // java.lang.SuppressWarnings처럼 패키지를 붙여 쓴 경우도 포함
+    private static boolean endsWithSegment(String code, int start, int end, String segment) {
+        int segmentStart = end - segment.length();
+        return segmentStart >= start && code.startsWith(segment, segmentStart)
+                && (segmentStart == start || code.charAt(segmentStart - 1) == '.');
+    }
+
+    private static int skipQualifiedName(String code, int i) {
+        while (i < code.length() && (Character.isJavaIdentifierPart(code.charAt(i)) || code.charAt(i) == '.')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipWhitespace(String code, int i) {
+        while (i < code.length() && Character.isWhitespace(code.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipLineComment(String code, int i) {
+        while (i < code.length() && code.charAt(i) != '\n' && code.charAt(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipBlockComment(String code, int i) {
+        int end = code.indexOf("*/", i);
+        return end < 0 ? code.length() : end + 2;
+    }
+
+    // 일반 문자열과 텍스트 블록(""")
+    private static int skipString(String code, int i) {
+        if (code.startsWith("\"\"\"", i)) {
+            i += 3;
+            while (i < code.length()) {
+                char c = code.charAt(i);
+                if (c == '\\') {
+                    i += 2;
+                } else if (code.startsWith("\"\"\"", i)) {
+                    return i + 3;
+                } else {
+                    i++;
+                }
+            }
+            return i;
+        }
+        i++;
+        while (i < code.length()) {
+            char c = code.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"' || c == '\n') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static int skipCharLiteral(String code, int i) {
+        while (i < code.length()) {
+            char c = code.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '\'' || c == '\n') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+}
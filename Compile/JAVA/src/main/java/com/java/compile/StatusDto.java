@@ -0,0 +1,19 @@
+package com.java.compile;
+
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+public class StatusDto {
+
+    // 실행 대기 중인 요청 수
+    int queued;
+    // 실행 중인 요청 수
+    int running;
+    // 동시에 실행할 수 있는 요청 수
+    int concurrency;
+    int queueCapacity;
+
+}
@@ -0,0 +1,44 @@
+package com.java.compile;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 실시간 실행(/compile/stream) 응답의 한 줄.
+ * 실행 중에는 chunk 프레임으로 출력을 보내고, 마지막에 기존 응답과 같은 state/output을 담은 done 프레임을 보낸다.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StreamFrameDto {
+
+    public static final String CHUNK = "chunk";
+    public static final String DONE = "done";
+
+    String type;
+    // chunk: stdout 또는 stderr
+    String stream;
+    String data;
+    // done: 실행 결과 (실행하지 못했으면 없음)
+    Verdict status;
+    Boolean state;
+    List<String> output;
+    // done: 실행 시간, CPU 시간 (ms)과 최대 메모리 사용량 (KB)
+    Long time;
+    Long cpuTime;
+    Long memory;
+
+    public static StreamFrameDto chunk(String stream, String data) {
+        return new StreamFrameDto(CHUNK, stream, data, null, null, null, null, null, null);
+    }
+
+    public static StreamFrameDto done(Verdict status, ResponseDto responseDto) {
+        return new StreamFrameDto(DONE, null, null, status, responseDto.isState(), responseDto.getOutput(),
+                responseDto.getTime(), responseDto.getCpuTime(), responseDto.getMemory());
+    }
+
+}
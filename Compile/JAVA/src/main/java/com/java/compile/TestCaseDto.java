@@ -0,0 +1,18 @@
+package com.java.compile;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class TestCaseDto {
+
+    private String input;
+    // 없으면 출력 비교 없이 실행 결과만 돌려준다
+    private String expectedOutput;
+
+}
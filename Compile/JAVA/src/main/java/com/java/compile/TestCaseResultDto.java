@@ -0,0 +1,22 @@
+package com.java.compile;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+public class TestCaseResultDto {
+
+    Verdict verdict;
+    List<String> output;
+    // 실행 시간 (ms)
+    long time;
+    // CPU 사용 시간 (ms), 측정할 수 없으면 -1
+    long cpuTime;
+    // 최대 메모리 사용량 RSS (KB), 측정할 수 없으면 -1
+    long memory;
+
+}
@@ -0,0 +1,27 @@
+package com.java.compile;
+
+/**
+ * 테스트 케이스 실행 결과
+ */
+public enum Verdict {
+
+    // 예상 출력과 일치
+    AC,
+    // 예상 출력과 다름
+    WA,
+    // 시간 초과
+    TLE,
+    // 메모리 초과
+    MLE,
+    // 런타임 에러
+    RE,
+    // 출력 초과
+    OLE,
+    // 예상 출력 없이 정상 종료
+    OK,
+    // 컴파일 에러
+    CE,
+    // 전체 실행 시간 한도를 넘어 실행하지 않음
+    SKIPPED
+
+}
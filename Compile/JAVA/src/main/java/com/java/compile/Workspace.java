@@ -0,0 +1,88 @@
+package com.java.compile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 실행 한 번(또는 워커 하나)이 사용하는 전용 작업 디렉터리. 닫으면 디렉터리째 삭제된다.
+ */
+public class Workspace implements Closeable {
+
+    private final Path dir;
+    private final long maxBytes;
+    private final Runnable onClose;
+    private long usedBytes;
+    private boolean closed;
+
+    Workspace(Path dir, long maxBytes, Runnable onClose) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.onClose = onClose;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    public void writeClasses(Map<String, byte[]> classes) throws IOException {
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            write(entry.getKey().replace('.', '/') + ".class", entry.getValue());
+        }
+    }
+
+    public Path write(String relativePath, byte[] bytes) throws IOException {
+        if (usedBytes + bytes.length > maxBytes) {
+            throw new IOException("workspace size limit exceeded: " + maxBytes + " bytes");
+        }
+        Path file = dir.resolve(relativePath).normalize();
+        if (!file.startsWith(dir)) {
+            throw new IOException("invalid workspace path: " + relativePath);
+        }
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes);
+        usedBytes += bytes.length;
+        return file;
+    }
+
+    // 디렉터리는 남기고 안의 파일만 지운다 (워커를 다음 실행에 다시 쓸 때)
+    public synchronized void clear() {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.filter(path -> !path.equals(dir))
+                    .sorted(Comparator.reverseOrder())
+                    .forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        usedBytes = 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            delete(dir);
+        } finally {
+            onClose.run();
+        }
+    }
+
+    static void delete(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.java.compile;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 실행별 작업 디렉터리를 만들고 정리한다.
+ * 기본 위치는 java.io.tmpdir 아래이며, 동시에 존재할 수 있는 디렉터리 수와 서버가 디렉터리에 쓰는 파일 크기를 제한한다.
+ * 사용자 코드가 만드는 파일은 {@link ResourceLimiter}가 실행 명령에 붙이는 ulimit -f로 파일마다 크기를 제한한다.
+ * 파일 수에는 제한이 없으므로 tmpfs(/dev/shm)를 root로 지정할 때는 cgroup(memory.max)으로 총량을 함께 제한해야 한다.
+ * 루트에는 실행 중인 디렉터리만 남으므로 실행 횟수와 관계없이 디렉터리 조회 비용이 일정하다.
+ * 한 호스트에서 여러 서버가 떠도 서로의 디렉터리를 지우지 않도록 프로세스(pid)별 하위 디렉터리를 사용한다.
+ */
+@Slf4j
+@Component
+public class WorkspaceManager {
+
+    private static final String[] PREFIXES = {"run-", "worker-", "classpath-"};
+
+    private final Path root;
+    private final long maxBytesPerWorkspace;
+    private final long orphanAgeMillis;
+    private final Semaphore slots;
+    private final Set<Path> active = ConcurrentHashMap.newKeySet();
+
+    public WorkspaceManager(@Value("${compile.workspace.root}") String root,
+                            @Value("${compile.workspace.max-active}") int maxActive,
+                            @Value("${compile.workspace.max-bytes-per-workspace}") long maxBytesPerWorkspace,
+                            @Value("${compile.workspace.orphan-age-millis}") long orphanAgeMillis) throws IOException {
+        Path base = root.isBlank() ? defaultRoot() : Paths.get(root);
+        this.root = base.resolve(String.valueOf(ProcessHandle.current().pid()));
+        this.maxBytesPerWorkspace = maxBytesPerWorkspace;
+        this.orphanAgeMillis = orphanAgeMillis;
+        this.slots = new Semaphore(maxActive);
+
+        Files.createDirectories(this.root);
+        // 이미 종료된 서버(같은 pid를 썼던 이전 서버 포함)가 남긴 디렉터리 정리
+        cleanUp(0);
+        removeDeadProcessRoots(base);
+        log.info("compile workspace root: {}", this.root);
+    }
+
+    // 사용자 코드가 쓴 파일이 호스트 메모리를 차지하지 않도록 디스크에 둔다
+    private static Path defaultRoot() {
+        return Paths.get(System.getProperty("java.io.tmpdir"), "codehive-compile");
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public Workspace createRun() throws IOException {
+        return create("run-");
+    }
+
+    public Workspace createWorker() throws IOException {
+        return create("worker-");
+    }
+
+    public Workspace createClassPath() throws IOException {
+        return create("classpath-");
+    }
+
+    private Workspace create(String prefix) throws IOException {
+        try {
+            if (!slots.tryAcquire(1, TimeUnit.SECONDS)) {
+                throw new IOException("too many active workspaces");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for a workspace", e);
+        }
+
+        Path dir = root.resolve(prefix + UUID.randomUUID());
+        try {
+            Files.createDirectory(dir);
+        } catch (IOException e) {
+            slots.release();
+            throw e;
+        }
+        active.add(dir);
+        return new Workspace(dir, maxBytesPerWorkspace, () -> {
+            active.remove(dir);
+            slots.release();
+        });
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    // 비정상 종료 등으로 남은 작업 디렉터리 정리
+    @Scheduled(fixedDelayString = "${compile.workspace.janitor-interval-millis}")
+    public void removeOrphans() {
+        cleanUp(orphanAgeMillis);
+    }
+
+    @PreDestroy
+    public void deleteRoot() {
+        Workspace.delete(root);
+    }
+
+    private void removeDeadProcessRoots(Path base) {
+        try (Stream<Path> dirs = Files.list(base)) {
+            dirs.filter(dir -> !dir.equals(root))
+                    .filter(dir -> dir.getFileName().toString().matches("\\d+"))
+                    .filter(dir -> ProcessHandle.of(Long.parseLong(dir.getFileName().toString())).isEmpty())
+                    .forEach(dir -> {
+                        log.info("removing workspaces of dead process {}", dir);
+                        Workspace.delete(dir);
+                    });
+        } catch (IOException e) {
+            log.warn("failed to clean up workspaces", e);
+        }
+    }
+
+    private void cleanUp(long minAgeMillis) {
+        long now = System.currentTimeMillis();
+        try (Stream<Path> dirs = Files.list(root)) {
+            dirs.filter(this::isWorkspace)
+                    .filter(dir -> !active.contains(dir))
+                    .filter(dir -> now - dir.toFile().lastModified() >= minAgeMillis)
+                    .forEach(dir -> {
+                        log.info("removing orphaned workspace {}", dir);
+                        Workspace.delete(dir);
+                    });
+        } catch (IOException e) {
+            log.warn("failed to clean up workspaces", e);
+        }
+    }
+
+    private boolean isWorkspace(Path dir) {
+        String name = dir.getFileName().toString();
+        for (String prefix : PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,271 @@
+# 미리 띄워 둔 Python 실행 워커 (RunnerPool에서 사용).
+# 표준 입력으로 소스와 입력 데이터를 받아 실행하고, 출력은 RunnerWorker.java와 같은 프레임 형식(실행별 토큰 포함)으로 표준 출력에 쓴다.
+# 소스는 이 프로세스에서 컴파일해 두고(같은 소스는 재사용), 실행할 때마다 fork한 자식에서 돌려
+# 사용자 코드가 바꾼 전역 상태가 다음 실행으로 넘어가지 않게 한다.
+# 프레임은 이 프로세스만 쓴다. 자식의 출력은 실행마다 만든 파이프로 받아 프레임으로 옮긴다.
+# 인자로 받은 모듈은 미리 import 해 두므로 자식은 import 비용 없이 시작한다.
+import builtins
+import collections
+import importlib
+import io
+import linecache
+import os
+import select
+import signal
+import struct
+import sys
+import threading
+import time
+import traceback
+
+FRAME_READY = 0
+FRAME_STDOUT = 1
+FRAME_STDERR = 2
+FRAME_DONE = 3
+FRAME_STARTED = 5
+
+STATUS_OK = 0
+STATUS_EXCEPTION = 1
+STATUS_OUT_OF_MEMORY = 3
+
+# 프레임 하나의 최대 크기 (RunnerWorker.MAX_FRAME_BYTES 이하)
+MAX_FRAME_BYTES = 4096
+HEADER = struct.Struct('>bqi')
+# 실행 요청을 받기 전에 보내는 프레임(READY)의 토큰
+NO_TOKEN = 0
+FLUSH_INTERVAL_SECONDS = 0.1
+# 출력이 없을 때 자식이 끝났는지 확인하는 주기이자, 자식이 끝난 뒤 남은 출력을 더 읽는 시간
+CHILD_POLL_SECONDS = 0.05
+CODE_CACHE_SIZE = 64
+
+code_cache = collections.OrderedDict()
+
+
+def write_frame(fd, frame_type, token, data=b''):
+    view = memoryview(data)
+    limit = MAX_FRAME_BYTES - HEADER.size
+    while True:
+        chunk = view[:limit]
+        os.write(fd, HEADER.pack(frame_type, token, len(chunk)) + bytes(chunk))
+        view = view[limit:]
+        if not view:
+            return
+
+
+def read_exact(stream, size):
+    data = stream.read(size)
+    if len(data) != size:
+        raise EOFError
+    return data
+
+
+def read_int(stream):
+    return struct.unpack('>i', read_exact(stream, 4))[0]
+
+
+def read_utf(stream):
+    size = struct.unpack('>H', read_exact(stream, 2))[0]
+    return read_exact(stream, size).decode('utf-8')
+
+
+def read_long(stream):
+    return struct.unpack('>q', read_exact(stream, 8))[0]
+
+
+def read_request(stream):
+    token = read_long(stream)
+    files = {}
+    for _ in range(read_int(stream)):
+        name = read_utf(stream)
+        files[name] = read_exact(stream, read_int(stream))
+    main = read_utf(stream)
+    work_dir = read_utf(stream)
+    data = read_exact(stream, read_int(stream))
+    return token, files, main, work_dir, data
+
+
+def compile_source(name, source):
+    key = (name, source)
+    code = code_cache.get(key)
+    if code is not None:
+        code_cache.move_to_end(key)
+        return code
+    code = compile(source, name, 'exec', dont_inherit=True)
+    code_cache[key] = code
+    if len(code_cache) > CODE_CACHE_SIZE:
+        code_cache.popitem(last=False)
+    return code
+
+
+def memory_input(data):
+    try:
+        fd = os.memfd_create('stdin')
+    except (AttributeError, OSError):
+        # memfd를 쓸 수 없으면 지운 임시 파일로 대신한다
+        import tempfile
+        temp = tempfile.TemporaryFile()
+        fd = os.dup(temp.fileno())
+        temp.close()
+    os.write(fd, data)
+    os.lseek(fd, 0, os.SEEK_SET)
+    return fd
+
+
+def run_child(frames_fd, requests_fd, stdout_fd, stderr_fd, name, source, code, work_dir, data):
+    os.setpgid(0, 0)
+    # 서버가 실행마다 새로 만든 디렉터리에서 실행해 이전 실행이 남긴 파일을 볼 수 없게 한다
+    os.chdir(work_dir)
+    signal.signal(signal.SIGINT, signal.SIG_DFL)
+    # 사용자 코드가 프레임을 직접 쓰거나 다음 요청을 읽지 못하도록 프로토콜 fd를 닫는다
+    os.close(requests_fd)
+    os.close(frames_fd)
+
+    # 입력은 메모리 파일로 표준 입력(fd 0)에, 출력은 부모가 읽는 파이프로 fd 1, 2에 연결한다
+    input_fd = memory_input(data)
+    os.dup2(input_fd, 0)
+    os.close(input_fd)
+    os.dup2(stdout_fd, 1)
+    os.dup2(stderr_fd, 2)
+    os.close(stdout_fd)
+    os.close(stderr_fd)
+
+    sys.stdin = io.TextIOWrapper(io.BufferedReader(io.FileIO(0, 'rb', closefd=False)), encoding='utf-8')
+    sys.stdout = io.TextIOWrapper(io.BufferedWriter(io.FileIO(1, 'wb', closefd=False), 8192), encoding='utf-8')
+    sys.stderr = io.TextIOWrapper(io.BufferedWriter(io.FileIO(2, 'wb', closefd=False), 8192), encoding='utf-8')
+    sys.argv = [name]
+
+    def flush_periodically():
+        while True:
+            time.sleep(FLUSH_INTERVAL_SECONDS)
+            flush_user_streams()
+
+    threading.Thread(target=flush_periodically, name='runner-flusher', daemon=True).start()
+
+    # 트레이스백에 사용자 소스 줄이 나오도록 등록
+    linecache.cache[name] = (len(source), None, source.decode('utf-8', 'replace').splitlines(True), name)
+    status = STATUS_OK
+    try:
+        exec(code, {'__name__': '__main__', '__file__': name, '__builtins__': builtins})
+    except SystemExit as e:
+        if e.code is not None and not isinstance(e.code, int):
+            print(e.code, file=sys.stderr)
+    except MemoryError:
+        status = STATUS_OUT_OF_MEMORY
+        sys.stderr.write('MemoryError\n')
+    except BaseException as e:
+        status = STATUS_EXCEPTION
+        # 워커 내부 호출(exec)은 보여주지 않는다
+        traceback.print_exception(type(e), e, e.__traceback__.tb_next)
+    flush_user_streams()
+    os._exit(status)
+
+
+def flush_user_streams():
+    for stream in (sys.stdout, sys.stderr):
+        try:
+            stream.flush()
+        except Exception:
+            pass
+
+
+def wait_child(pid, options=0):
+    reaped, status, usage = os.wait4(pid, options)
+    if reaped == 0:
+        return None
+    try:
+        # 사용자 코드가 만든 프로세스가 남지 않게 한다
+        os.killpg(pid, signal.SIGKILL)
+    except OSError:
+        pass
+    cpu_nanos = int((usage.ru_utime + usage.ru_stime) * 1e9)
+    # ru_maxrss는 KB 단위
+    peak_rss_bytes = usage.ru_maxrss * 1024
+    if os.WIFEXITED(status) and os.WEXITSTATUS(status) in (STATUS_OK, STATUS_OUT_OF_MEMORY):
+        return os.WEXITSTATUS(status), cpu_nanos, peak_rss_bytes
+    return STATUS_EXCEPTION, cpu_nanos, peak_rss_bytes
+
+
+def relay_output(frames_fd, token, pid, pipes):
+    # 자식의 출력 파이프를 프레임으로 옮기고, 자식이 끝나면 wait_child 결과를 돌려준다
+    result = None
+    drain_until = None
+    while pipes:
+        timeout = CHILD_POLL_SECONDS if drain_until is None else max(0.0, drain_until - time.monotonic())
+        ready, _, _ = select.select(list(pipes), [], [], timeout)
+        for fd in ready:
+            data = os.read(fd, MAX_FRAME_BYTES - HEADER.size)
+            if data:
+                write_frame(frames_fd, pipes[fd], token, data)
+            else:
+                os.close(fd)
+                del pipes[fd]
+        if result is None:
+            result = wait_child(pid, os.WNOHANG)
+            if result is not None:
+                # 사용자 코드가 띄운 프로세스가 파이프를 잡고 있어도 남은 출력만 잠시 더 읽고 끝낸다
+                drain_until = time.monotonic() + CHILD_POLL_SECONDS
+        elif time.monotonic() >= drain_until:
+            break
+    for fd in pipes:
+        os.close(fd)
+    return result if result is not None else wait_child(pid)
+
+
+def main():
+    # 요청과 프레임은 별도 fd로 옮기고, 사용자 코드가 fd 0, 1을 건드려도 프로토콜이 깨지지 않게 한다
+    requests_fd = os.dup(0)
+    frames_fd = os.dup(1)
+    devnull = os.open(os.devnull, os.O_RDWR)
+    os.dup2(devnull, 0)
+    os.dup2(devnull, 1)
+    os.close(devnull)
+    requests = os.fdopen(requests_fd, 'rb')
+
+    for module in sys.argv[1:]:
+        try:
+            importlib.import_module(module)
+        except Exception:
+            # 설치되지 않은 모듈은 무시
+            pass
+
+    write_frame(frames_fd, FRAME_READY, NO_TOKEN)
+    while True:
+        try:
+            token, files, main_name, work_dir, data = read_request(requests)
+        except EOFError:
+            return
+        source = files.get(main_name, b'')
+
+        start = time.perf_counter_ns()
+        try:
+            code = compile_source(main_name, source)
+        except (SyntaxError, ValueError) as e:
+            # 문법 오류는 실행하지 않고 오류 메시지만 돌려준다
+            message = ''.join(traceback.format_exception_only(type(e), e))
+            write_frame(frames_fd, FRAME_STDERR, token, message.encode('utf-8'))
+            write_frame(frames_fd, FRAME_DONE, token, struct.pack('>iq', STATUS_EXCEPTION, time.perf_counter_ns() - start))
+            continue
+
+        sys.stdout.flush()
+        sys.stderr.flush()
+        stdout_read, stdout_write = os.pipe()
+        stderr_read, stderr_write = os.pipe()
+        pid = os.fork()
+        if pid == 0:
+            try:
+                os.close(stdout_read)
+                os.close(stderr_read)
+                run_child(frames_fd, requests.fileno(), stdout_write, stderr_write, main_name, source, code, work_dir, data)
+            finally:
+                os._exit(STATUS_EXCEPTION)
+        os.close(stdout_write)
+        os.close(stderr_write)
+        write_frame(frames_fd, FRAME_STARTED, token, struct.pack('>i', pid))
+        status, cpu_nanos, peak_rss_bytes = relay_output(frames_fd, token, pid, {stdout_read: FRAME_STDOUT, stderr_read: FRAME_STDERR})
+        elapsed = time.perf_counter_ns() - start
+        # RunnerWorker.java의 DONE 프레임(상태, 경과 시간) 뒤에 자식의 CPU 시간과 최대 RSS를 덧붙인다
+        write_frame(frames_fd, FRAME_DONE, token, struct.pack('>iqqq', status, elapsed, cpu_nanos, peak_rss_bytes))
+
+
+if __name__ == '__main__':
+    main()
@@ -0,0 +1,116 @@
+package com.java.compile;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourcePreprocessorTest {
+
+    private static final String A = SourcePreprocessor.ANNOTATION;
+
+    @Test
+    void keepsLineNumbersWhenAnnotating() {
+        String code = "import java.util.*;\n"
+                + "\n"
+                + "public class Main {\n"
+                + "    public static void main(String[] args) {}\n"
+                + "}\n";
+
+        String annotated = SourcePreprocessor.addSuppressWarnings(code);
+
+        assertThat(annotated).isEqualTo("import java.util.*;\n"
+                + "\n"
+                + A + "public class Main {\n"
+                + "    public static void main(String[] args) {}\n"
+                + "}\n");
+        assertThat(annotated.split("\n", -1)).hasSameSizeAs(code.split("\n", -1));
+    }
+
+    @Test
+    void annotatesEveryTopLevelType() {
+        String code = "class Main {}\n"
+                + "interface Shape { class Inner {} }\n"
+                + "enum Color { RED }\n"
+                + "record Point(int x, int y) {}\n"
+                + "@interface Marker {}\n";
+
+        assertThat(SourcePreprocessor.addSuppressWarnings(code)).isEqualTo(A + "class Main {}\n"
+                + A + "interface Shape { class Inner {} }\n"
+                + A + "enum Color { RED }\n"
+                + A + "record Point(int x, int y) {}\n"
+                + A + "@interface Marker {}\n");
+    }
+
+    @Test
+    void ignoresKeywordsInCommentsAndLiterals() {
+        String code = "// class Commented {}\n"
+                + "/* enum Hidden { A } */\n"
+                + "class Main {\n"
+                + "    String s = \"class Quoted {} \\\" }\";\n"
+                + "    char c = '}';\n"
+                + "    String block = \"\"\"\n"
+                + "        } class InBlock { \\\"\"\"\n"
+                + "        \"\"\";\n"
+                + "}\n"
+                + "class Second {}\n";
+
+        assertThat(SourcePreprocessor.addSuppressWarnings(code)).isEqualTo("// class Commented {}\n"
+                + "/* enum Hidden { A } */\n"
+                + A + "class Main {\n"
+                + "    String s = \"class Quoted {} \\\" }\";\n"
+                + "    char c = '}';\n"
+                + "    String block = \"\"\"\n"
+                + "        } class InBlock { \\\"\"\"\n"
+                + "        \"\"\";\n"
+                + "}\n"
+                + A + "class Second {}\n");
+    }
+
+    @Test
+    void insertsBeforeModifiersAndExistingAnnotations() {
+        String code = "@FunctionalInterface\n"
+                + "public interface Task { void run(); }\n"
+                + "final class Main {}\n";
+
+        assertThat(SourcePreprocessor.addSuppressWarnings(code)).isEqualTo(A + "@FunctionalInterface\n"
+                + "public interface Task { void run(); }\n"
+                + A + "final class Main {}\n");
+    }
+
+    @Test
+    void skipsTypesThatAlreadySuppressWarnings() {
+        String code = "@SuppressWarnings(\"rawtypes\") class Main {}\n"
+                + "@java.lang.SuppressWarnings({\"unchecked\"})\n"
+                + "class Second {}\n"
+                + "class Third {}\n";
+
+        assertThat(SourcePreprocessor.addSuppressWarnings(code)).isEqualTo("@SuppressWarnings(\"rawtypes\") class Main {}\n"
+                + "@java.lang.SuppressWarnings({\"unchecked\"})\n"
+                + "class Second {}\n"
+                + A + "class Third {}\n");
+    }
+
+    @Test
+    void leavesSourceWithoutDeclarationsUnchanged() {
+        String code = "package demo;\nimport java.util.List;\n// class Main {}\n";
+
+        assertThat(SourcePreprocessor.addSuppressWarnings(code)).isSameAs(code);
+        assertThat(SourcePreprocessor.insertionPoints(code)).isEmpty();
+    }
+
+    @Test
+    void mapsAnnotatedPositionsBackToOriginalSource() {
+        String code = "class Main { int x = ; }\nclass Second { int y = ; }\n";
+        int[] insertionPoints = SourcePreprocessor.insertionPoints(code);
+        String annotated = SourcePreprocessor.addSuppressWarnings(code, insertionPoints);
+
+        assertThat(insertionPoints).containsExactly(0, code.indexOf("class Second"));
+        for (String marker : new String[]{"int x", "int y", "Second"}) {
+            long position = annotated.indexOf(marker);
+            assertThat(SourcePreprocessor.originalPosition(insertionPoints, position)).isEqualTo(code.indexOf(marker));
+        }
+        // 붙인 어노테이션 안의 위치는 선언 시작 위치로 본다
+        assertThat(SourcePreprocessor.originalPosition(insertionPoints, annotated.indexOf("class Second") - 5))
+                .isEqualTo(code.indexOf("class Second"));
+    }
+}
@@ -4,20 +4,22 @@
  * Contents : 채팅 관련 api 요청
 */
 import { authHttp } from './http';
-import { ChatMessage, studyUserList } from '@/type/ChatType';
+import { ChatPage, studyUserList } from '@/type/ChatType';
 const api = authHttp;
 
 /**
- * get chatlist findBy studyinfoId
- * @param param { studyInfoId : number }
+ * get chatlist findBy studyinfoId (before 이전의 메시지 size개, before가 없으면 최근 메시지)
+ * @param param { studyInfoId : number, before : 이전 응답의 nextCursor }
  * @param success 
  * @param fail
  */
 const getChatList = async (
   studyInfoId: string,
-  success: ({data} : {data: ChatMessage[]}) => void,
-  fail: (error: unknown) => void) => {
-  await api.get(`/chat/${studyInfoId}`).then(success).catch(fail);
+  before: string | null,
+  success: ({data} : {data: ChatPage}) => void,
+  fail: (error: unknown) => void,
+  size: number = 50) => {
+  await api.get(`/chat/${studyInfoId}`, { params: { before: before ?? undefined, size } }).then(success).catch(fail);
 }
 
 /**
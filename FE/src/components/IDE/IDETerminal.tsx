@@ -32,6 +32,8 @@ function IDETerminal(props: IDETerminalProps) {
   const [compileResult, setCompileResult] = useState<string>("");
   const [consoleResultColor, setConsoleResultColor] = useState<string>("wheat");
   const [isRunning, setIsRunning] = useState<boolean>(false);
+  // 실행 중 받은 출력 조각
+  const streamedOutput = useRef<string>("");
 
   // input 변경
   function handleInput(event: ChangeEvent<HTMLTextAreaElement>) {
@@ -95,6 +97,7 @@ function IDETerminal(props: IDETerminalProps) {
       studyRoomId: props.id,
       code: props.code,
       input: input,
+      stream: true,
     };
     runCodeAndInput(codeAndInput);
   }
@@ -114,6 +117,18 @@ function IDETerminal(props: IDETerminalProps) {
   function submitCodeAndInput() {
     client.current.subscribe('/sub/run/' + props.id, (body:StompJs.Message) => {
       const message = JSON.parse(body.body);
+      // 실행 중 출력 조각은 결과창에 이어 붙이고, 마지막(done) 메시지에서 최종 결과로 바꾼다
+      if (message.type === 'chunk') {
+        streamedOutput.current += message.data;
+        setIsConsole("20vh");
+        setConsoleState("Result");
+        setInputColor("gray");
+        setResultColor("wheat");
+        setConsoleResultColor("wheat");
+        setCompileResult(streamedOutput.current);
+        return
+      }
+      streamedOutput.current = "";
       runNotice(message.nickname);
       setIsConsole("20vh");
       setConsoleState("Result");
@@ -147,6 +162,7 @@ function IDETerminal(props: IDETerminalProps) {
     client.current.subscribe('/sub/submit/' + props.id, (body:StompJs.Message) => {
       const message = JSON.parse(body.body);
       notify(message.nickname);
+      streamedOutput.current = "";
       setIsRunning(true);
       props.setLanguage(message.language)
     });
@@ -80,13 +80,18 @@ function JoinUserMouse({ userIdList, studyRoomId, userMouseList}:{ userIdList:nu
   }
 
 
-  // 상대위치 받기
+  // 상대위치 받기 (서버가 스터디룸별로 모아 { studyRoomId, cursors: [...] } 로 보낸다)
   async function getCursorSpot() {
     client.current.subscribe('/sub/cursor/' + studyRoomId, (body:StompJs.Message) => {
       const message = JSON.parse(body.body);
-      const temp = {...userMouseInfo}
-      temp[message.userId] = [message.x, message.y]
-      setUserMouseInfo(temp);
+      const cursors = message.cursors ?? [message];
+      setUserMouseInfo((prev:any) => {
+        const temp = {...prev}
+        for (const cursor of cursors) {
+          temp[cursor.userId] = [cursor.x, cursor.y]
+        }
+        return temp;
+      });
     });
   }
 
@@ -96,7 +101,7 @@ function JoinUserMouse({ userIdList, studyRoomId, userMouseList}:{ userIdList:nu
     return () => {
       disconnect();
     }
-  }, [userMouseInfo])
+  }, [])
 
   useEffect(() => {
     const temp = {...userMouseList};
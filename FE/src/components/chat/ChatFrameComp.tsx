@@ -23,8 +23,13 @@ function ChatFrameComp(props: Props) {
   const loginUser = useRecoilValue(userState);
   const client = useRef<any>({});
   const scrollRef = useRef<HTMLLIElement>(null);
+  const listRef = useRef<HTMLDivElement>(null);
+  // 이전 메시지를 앞에 붙일 때는 맨 아래로 내리지 않고 보던 위치를 유지한다
+  const prependHeight = useRef<number | null>(null);
+  const loadingRef = useRef<boolean>(false);
 
   const [chatList, setChatList] = useState<ChatMessage[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [chat, setChat] = useState<string>("");
   const [dic, setDic] = useState<{ [userId: number]: string }>("");
 
@@ -39,12 +44,34 @@ function ChatFrameComp(props: Props) {
   }
 
   async function fetchChatData() {
-		await getChatList(props.id, ({data}) => {
-      setChatList(data);
+		await getChatList(props.id, null, ({data}) => {
+      setChatList((chat_list) => [...data.chatList, ...chat_list]);
+      setNextCursor(data.nextCursor);
     },
     (err) => {console.log(err)});
 	}
 
+  // 맨 위까지 스크롤하면 그 이전 메시지를 받아 앞에 붙인다
+  async function fetchOlderChatData() {
+    if (nextCursor === null || loadingRef.current) {
+      return;
+    }
+    loadingRef.current = true;
+    await getChatList(props.id, nextCursor, ({data}) => {
+      prependHeight.current = listRef.current?.scrollHeight ?? null;
+      setChatList((chat_list) => [...data.chatList, ...chat_list]);
+      setNextCursor(data.nextCursor);
+    },
+    (err) => {console.log(err)});
+    loadingRef.current = false;
+  }
+
+  function handleScroll() {
+    if (listRef.current && listRef.current.scrollTop === 0) {
+      fetchOlderChatData();
+    }
+  }
+
   async function fetchStudyUserList() {
 
     await getStudyUserList(props.id, ({data}) => {
@@ -79,6 +106,11 @@ function ChatFrameComp(props: Props) {
 
   // 스크롤
   useEffect(() => {
+    if (prependHeight.current !== null && listRef.current) {
+      listRef.current.scrollTop = listRef.current.scrollHeight - prependHeight.current;
+      prependHeight.current = null;
+      return;
+    }
     scrollRef.current?.scrollIntoView({ behavior: "smooth", block: "end" });
   }, [chatList]);
   
@@ -160,7 +192,7 @@ function ChatFrameComp(props: Props) {
           backgroundColor : "#00000060",
           backdropFilter: "blur(10px)",
           }} className={`col-12 ${chatStyle.chat_box}`}>
-          <div className={`col-12 ${chatStyle.chat_list_con}`} style={{maxHeight : "440px"}}>
+          <div className={`col-12 ${chatStyle.chat_list_con}`} style={{maxHeight : "440px"}} ref={listRef} onScroll={handleScroll}>
             <ul className={`col-12 ${chatStyle.chat_list}`}>
               {
                 chatList.map((value, index) => {
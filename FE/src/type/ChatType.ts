@@ -5,6 +5,12 @@ export type ChatMessage = {
   dateTime: string;
 }
 
+export type ChatPage = {
+  chatList: ChatMessage[];
+  // 더 이전 메시지를 받을 때 before로 넘기는 값 (없으면 null)
+  nextCursor: string | null;
+}
+
 export type studyUser= {
   email: string;
   userId: number;